@@ -0,0 +1,36 @@
+package com.mpma.dms.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Switch between thread-per-request on platform threads (default) and virtual threads.
+// spring.threads.virtual.enabled=true makes Spring Boot serve Tomcat requests on virtual
+// threads; this class gives the app's own blocking-I/O executors (streamed responses,
+// blob uploads and batch deletes) the same mode.
+@Component
+@RequiredArgsConstructor
+public class ExecutionMode {
+
+    private final Environment environment;
+
+    public boolean isVirtual() {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+
+    // Platform mode: a fixed pool of platformThreads. Virtual mode: one new virtual thread
+    // per task, so concurrency is bounded only by the callers (semaphores, batch sizes).
+    // Only use this for I/O-bound work; CPU-bound pools (rendering, hashing) stay fixed.
+    public ExecutorService newBlockingExecutor(String threadNamePrefix, int platformThreads) {
+        if (!isVirtual()) {
+            return Executors.newFixedThreadPool(platformThreads, new CustomizableThreadFactory(threadNamePrefix));
+        }
+
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+    }
+}
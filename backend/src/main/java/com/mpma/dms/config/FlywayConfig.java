@@ -0,0 +1,22 @@
+package com.mpma.dms.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Schema changes live in src/main/resources/db/migration. Databases that were created
+// by Hibernate before migrations existed are baselined at V1 on first start.
+@Configuration
+public class FlywayConfig {
+
+    @Value("${spring.flyway.baseline-on-migrate:true}")
+    private boolean baselineOnMigrate;
+
+    @Bean
+    public FlywayConfigurationCustomizer baselineExistingSchema() {
+        return configuration -> configuration
+                .baselineOnMigrate(baselineOnMigrate)
+                .baselineVersion("1");
+    }
+}
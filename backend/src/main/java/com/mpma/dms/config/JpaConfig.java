@@ -0,0 +1,43 @@
+package com.mpma.dms.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// JDBC batching for bulk writes (imports, onboarding tasks) and the second-level cache
+// for User/Student plus the query cache. Values set explicitly under
+// spring.jpa.properties.* still win.
+@Configuration
+public class JpaConfig {
+
+    @Value("${jpa.jdbc.batch-size:500}")
+    private int jdbcBatchSize;
+
+    @Value("${jpa.second-level-cache.enabled:true}")
+    private boolean secondLevelCacheEnabled;
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", jdbcBatchSize);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+        };
+    }
+
+    // In-process Caffeine regions; sizes and expiry are in hibernate-cache.conf.
+    // Statistics feed the hibernate.second.level.cache.* / hibernate.cache.query.* metrics.
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.cache.use_second_level_cache", secondLevelCacheEnabled);
+            properties.putIfAbsent("hibernate.cache.use_query_cache", secondLevelCacheEnabled);
+            properties.putIfAbsent("hibernate.cache.region.factory_class", "jcache");
+            properties.putIfAbsent("hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+            properties.putIfAbsent("hibernate.javax.cache.uri", "hibernate-cache.conf");
+            properties.putIfAbsent("hibernate.javax.cache.missing_cache_strategy", "create");
+            properties.putIfAbsent("hibernate.generate_statistics", true);
+        };
+    }
+}
@@ -1,13 +1,20 @@
 package com.mpma.dms.config;
 
 
-
+import com.mpma.dms.security.JwtAuthenticationFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 //@Configuration
 //@EnableMethodSecurity
@@ -45,14 +52,43 @@ import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 @EnableWebSecurity
+@RequiredArgsConstructor
 public class SecurityConfig {
+
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    // When false every endpoint stays open and bearer tokens are only used to identify the caller
+    @Value("${security.jwt.required:false}")
+    private boolean tokenRequired;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
-                .authorizeHttpRequests(auth -> auth
-                        .anyRequest().permitAll() // Allow all requests without authentication
-                );
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+
+        if (tokenRequired) {
+            http.authorizeHttpRequests(auth -> auth
+                    .requestMatchers(HttpMethod.POST, "/api/user/Login", "/api/user").permitAll()
+                    // Scraped without a token; served on management.server.port (8081), not the public port
+                    .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                    .anyRequest().authenticated()
+            );
+        } else {
+            http.authorizeHttpRequests(auth -> auth
+                    .anyRequest().permitAll() // Allow all requests without authentication
+            );
+        }
         return http.build();
     }
+
+    // The filter only runs inside the security chain, not a second time as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
@@ -0,0 +1,53 @@
+package com.mpma.dms.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Streamed responses (file downloads, certificate ZIPs) run as async requests.
+// Give them their own executor and a timeout long enough for large transfers
+// instead of the container's 30 second async default.
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ExecutionMode executionMode;
+
+    @Value("${web.streaming.timeout-ms:3600000}")
+    private long streamingTimeoutMs;
+
+    @Value("${web.streaming.pool-size:64}")
+    private int streamingPoolSize;
+
+    @Value("${web.streaming.queue-capacity:256}")
+    private int streamingQueueCapacity;
+
+    @Bean
+    public AsyncTaskExecutor streamingTaskExecutor() {
+        if (executionMode.isVirtual()) {
+            // One virtual thread per streamed response; the pool/queue limits below do not apply
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("streaming-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamingPoolSize);
+        executor.setMaxPoolSize(streamingPoolSize);
+        executor.setQueueCapacity(streamingQueueCapacity);
+        executor.setThreadNamePrefix("streaming-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(streamingTimeoutMs);
+        configurer.setTaskExecutor(streamingTaskExecutor());
+    }
+}
@@ -1,5 +1,6 @@
 package com.mpma.dms.controller;
 
+import com.mpma.dms.dto.CursorPageDTO;
 import com.mpma.dms.dto.DocumentDTO;
 import lombok.RequiredArgsConstructor;
 import com.mpma.dms.service.DocumentService;
@@ -32,6 +33,21 @@ public class DocumentController {
         return ResponseEntity.ok(documentService.getDocumentsByStudentId(studentId));
     }
 
+    // Keyset-paginated: /student/{studentId}/page?type=pdf&limit=50&cursor=...
+    @GetMapping("/student/{studentId}/page")
+    public ResponseEntity<CursorPageDTO<DocumentDTO>> getDocumentsPage(@PathVariable String studentId,
+                                                                       @RequestParam(required = false) String type,
+                                                                       @RequestParam(defaultValue = "50") int limit,
+                                                                       @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(documentService.getDocumentsPage(studentId, type, cursor, limit));
+    }
+
+    @GetMapping("/student/{studentId}/count")
+    public ResponseEntity<Long> countDocuments(@PathVariable String studentId,
+                                               @RequestParam(required = false) String type) {
+        return ResponseEntity.ok(documentService.countDocuments(studentId, type));
+    }
+
     @PutMapping("/{id}")
 //    @PreAuthorize("hasRole('STUDENT') or hasRole('ADMIN')")
     public ResponseEntity<DocumentDTO> updateDocument(@PathVariable Long id, @RequestBody DocumentDTO documentDTO) {
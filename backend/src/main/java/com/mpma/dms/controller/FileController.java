@@ -1,56 +1,299 @@
 package com.mpma.dms.controller;
 
+import com.mpma.dms.dto.DeleteJobDTO;
 import com.mpma.dms.dto.FileInfoDTO;
-import com.mpma.dms.service.impl.AzureStorageService;
+import com.mpma.dms.dto.FileMetadataDTO;
+import com.mpma.dms.dto.FilePageDTO;
+import com.mpma.dms.dto.SearchHitDTO;
+import com.mpma.dms.dto.UploadResultDTO;
+import com.mpma.dms.dto.UploadSessionDTO;
+import com.mpma.dms.exception.BadRequestException;
+import com.mpma.dms.service.FolderArchiveService;
+import com.mpma.dms.service.FolderDeleteService;
+import com.mpma.dms.service.PreviewService;
+import com.mpma.dms.service.SearchService;
+import com.mpma.dms.service.StorageBackend;
+import com.mpma.dms.service.UploadSessionService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/files")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "http://localhost:5173")
+@CrossOrigin(origins = "http://localhost:5173", exposedHeaders = {"Upload-Offset", "Upload-Length", "Location"})
 public class FileController {
 
-    private final AzureStorageService storageService;
+    private final StorageBackend storageService;
+    private final FolderDeleteService folderDeleteService;
+    private final SearchService searchService;
+    private final PreviewService previewService;
+    private final UploadSessionService uploadSessionService;
+    private final FolderArchiveService folderArchiveService;
+
+    // Resumable upload headers (same names as the tus protocol)
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    @Value("${storage.listing.max-page-size:1000}")
+    private int maxListPageSize;
+
+    // Top-level prefixes the app stores its own blobs under, in the same container as user folders
+    @Value("${storage.dedup.content-prefix:_content/}")
+    private String contentPrefix;
+
+    @Value("${preview.prefix:_preview/}")
+    private String previewPrefix;
+
+    @Value("${certificate.cache.spill-prefix:_certificate-cache/}")
+    private String certificateCachePrefix;
 
     // ✅ Upload to subfolder: /upload/user-1/folder1/my-document.pdf
     @PostMapping("/upload/{userId}/**")
-    public ResponseEntity<String> uploadFile(HttpServletRequest request,
-                                             @RequestParam("file") MultipartFile file,
-                                             @PathVariable String userId) {
+    public ResponseEntity<?> uploadFile(HttpServletRequest request,
+                                        @RequestParam("file") MultipartFile file,
+                                        @PathVariable String userId) {
+        checkUserId(userId);
         try {
             String fullPath = request.getRequestURI()
                     .split("/upload/" + userId + "/")[1];
 
             String blobPath = userId + "/" + fullPath;
 
-            storageService.uploadFile(file, blobPath);
+            // Report carries per-block timing for chunked uploads
+            UploadResultDTO result = storageService.uploadFile(file, blobPath);
+            searchService.indexAsync(blobPath);
+            previewService.renderAsync(blobPath);
 
-            return ResponseEntity.ok("File uploaded to: " + blobPath);
+            return ResponseEntity.ok(result);
         } catch (IOException | ArrayIndexOutOfBoundsException e) {
             return ResponseEntity.status(500).body("Upload failed");
         }
     }
 
+    // ✅ Resumable upload: POST /uploads/user-1/folder1/big.zip with Upload-Length: <bytes>
+    // -> 201 + session; then PATCH the chunks to /upload-sessions/{sessionId} and complete it
+    @PostMapping("/uploads/{userId}/**")
+    public ResponseEntity<UploadSessionDTO> createUploadSession(HttpServletRequest request,
+                                                                @PathVariable String userId,
+                                                                @RequestHeader(UPLOAD_LENGTH) long length) {
+        checkUserId(userId);
+        String fullPath = request.getRequestURI().split("/uploads/" + userId + "/")[1];
+        UploadSessionDTO session = uploadSessionService.create(userId + "/" + fullPath, length);
+
+        return ResponseEntity.created(URI.create("/api/files/upload-sessions/" + session.getSessionId()))
+                .header(UPLOAD_OFFSET, "0")
+                .body(session);
+    }
+
+    // ✅ Committed offset (GET or HEAD): after a failed PATCH, resend from Upload-Offset
+    @GetMapping("/upload-sessions/{sessionId}")
+    public ResponseEntity<UploadSessionDTO> getUploadSession(@PathVariable String sessionId) {
+        return uploadSessionService.getSession(sessionId)
+                .map(session -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .header(UPLOAD_OFFSET, Long.toString(session.getOffset()))
+                        .header(UPLOAD_LENGTH, Long.toString(session.getSize()))
+                        .body(session))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // ✅ Chunk: raw bytes in the body, Upload-Offset must equal the committed offset (409 otherwise)
+    @PatchMapping("/upload-sessions/{sessionId}")
+    public ResponseEntity<?> appendUploadChunk(HttpServletRequest request,
+                                               @PathVariable String sessionId,
+                                               @RequestHeader(UPLOAD_OFFSET) long offset) {
+        if (uploadSessionService.getSession(sessionId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            UploadSessionDTO session = uploadSessionService.append(sessionId, offset, request.getInputStream());
+            return ResponseEntity.ok()
+                    .header(UPLOAD_OFFSET, Long.toString(session.getOffset()))
+                    .body(session);
+        } catch (IOException e) {
+            // Usually the client went away; whatever was staged before that is kept
+            log.warn("Upload chunk failed for session {}: {}", sessionId, e.getMessage());
+            return ResponseEntity.status(500).body("Upload failed");
+        }
+    }
+
+    // ✅ Finalize: the staged chunks become the file
+    @PostMapping("/upload-sessions/{sessionId}/complete")
+    public ResponseEntity<?> completeUploadSession(@PathVariable String sessionId) {
+        if (uploadSessionService.getSession(sessionId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            UploadResultDTO result = uploadSessionService.complete(sessionId);
+            searchService.indexAsync(result.getPath());
+            previewService.renderAsync(result.getPath());
+            return ResponseEntity.ok(result);
+        } catch (IOException e) {
+            log.error("Failed to complete upload session {}", sessionId, e);
+            return ResponseEntity.status(500).body("Upload failed");
+        }
+    }
+
+    @DeleteMapping("/upload-sessions/{sessionId}")
+    public ResponseEntity<Void> abortUploadSession(@PathVariable String sessionId) {
+        uploadSessionService.abort(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
     // ✅ Download: /download/user-1/folder1/my-document.pdf
+    // Supports Range / If-Range: single ranges are sent as 206, multiple ranges
+    // as multipart/byteranges, each part streamed from a ranged blob read.
     @GetMapping("/download/{userId}/**")
-    public ResponseEntity<byte[]> download(HttpServletRequest request,
-                                           @PathVariable String userId) throws IOException {
+    public ResponseEntity<StreamingResponseBody> download(HttpServletRequest request,
+                                                          @PathVariable String userId,
+                                                          @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                                                          @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
+        checkUserId(userId);
         String fullPath = request.getRequestURI().split("/download/" + userId + "/")[1];
         String blobPath = userId + "/" + fullPath;
 
-        byte[] data = storageService.downloadFile(blobPath);
+        // Headers come from blob properties; the body is streamed, never buffered
+        FileMetadataDTO metadata = storageService.getFileMetadata(blobPath);
+        long size = metadata.getSize();
+        String eTag = metadata.getETag();
+        MediaType contentType = resolveContentType(metadata);
 
-        return ResponseEntity.ok()
+        if (rangeHeader == null || !isIfRangeSatisfied(ifRange, metadata)) {
+            StreamingResponseBody body = out -> storageService.downloadFile(blobPath, eTag, out);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + extractFilename(fullPath))
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .contentType(contentType)
+                    .contentLength(size)
+                    .eTag(eTag)
+                    .body(body);
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+            validateRanges(ranges, size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder partial = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + extractFilename(fullPath))
-                .body(data);
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(eTag);
+
+        if (ranges.size() == 1) {
+            long start = ranges.get(0).getRangeStart(size);
+            long end = ranges.get(0).getRangeEnd(size);
+            StreamingResponseBody body = out -> storageService.downloadFileRange(blobPath, eTag, start, end - start + 1, out);
+            return partial
+                    .header(HttpHeaders.CONTENT_RANGE, contentRange(start, end, size))
+                    .contentType(contentType)
+                    .contentLength(end - start + 1)
+                    .body(body);
+        }
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        StreamingResponseBody body = out -> {
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(size);
+                long end = range.getRangeEnd(size);
+                String partHeader = "\r\n--" + boundary + "\r\n"
+                        + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                        + HttpHeaders.CONTENT_RANGE + ": " + contentRange(start, end, size) + "\r\n\r\n";
+                out.write(partHeader.getBytes(StandardCharsets.US_ASCII));
+                storageService.downloadFileRange(blobPath, eTag, start, end - start + 1, out);
+            }
+            out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        };
+        return partial
+                .contentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary))
+                .body(body);
+    }
+
+    // ✅ Folder as ZIP: /download-folder/user-1/folder1 (or /download-folder/user-1/ for everything)
+    // Streamed while the tree is walked; entry names are relative to the folder
+    @GetMapping("/download-folder/{userId}/**")
+    public ResponseEntity<StreamingResponseBody> downloadFolder(HttpServletRequest request,
+                                                                @PathVariable String userId) {
+        checkUserId(userId);
+        String[] parts = request.getRequestURI().split("/download-folder/" + userId + "/", 2);
+        String folderPath = parts.length > 1 ? parts[1] : "";
+        String prefix = folderPath.isEmpty() || folderPath.endsWith("/")
+                ? userId + "/" + folderPath
+                : userId + "/" + folderPath + "/";
+
+        if (storageService.listUserFilesPage(prefix, null, 1).getItems().isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        FolderArchiveService.ArchiveWriter archive = folderArchiveService.open(prefix);
+        String zipName = prefix.equals(userId + "/") ? userId : extractFilename(prefix.substring(0, prefix.length() - 1));
+        StreamingResponseBody body = archive::writeTo;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + zipName + ".zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    // ✅ Thumbnail: /preview/user-1/folder1/my-document.pdf
+    // JPEG of the first page / scaled image; 404 until it has been rendered (or for other file types)
+    @GetMapping("/preview/{userId}/**")
+    public ResponseEntity<StreamingResponseBody> preview(HttpServletRequest request,
+                                                         @PathVariable String userId,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        checkUserId(userId);
+        String fullPath = request.getRequestURI().split("/preview/" + userId + "/")[1];
+        String blobPath = userId + "/" + fullPath;
+
+        Optional<FileMetadataDTO> preview = previewService.findPreview(blobPath);
+        if (preview.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String eTag = preview.get().getETag();
+        // The URL is the same for every version of the file, so browsers keep the thumbnail
+        // but revalidate it each time (a 304 while the preview's ETag is unchanged)
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (ifNoneMatch != null && unquote(ifNoneMatch).equals(unquote(eTag))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).eTag(eTag).build();
+        }
+
+        String previewPath = previewService.previewPath(blobPath);
+        StreamingResponseBody body = out -> storageService.downloadFile(previewPath, eTag, out);
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(eTag)
+                .contentType(MediaType.IMAGE_JPEG)
+                .contentLength(preview.get().getSize())
+                .body(body);
     }
 
     // ✅ List files under user folder or subfolder
@@ -58,49 +301,167 @@ public class FileController {
     public ResponseEntity<List<FileInfoDTO>> listFiles(
             @PathVariable String userId,
             @RequestParam(required = false) String folder) {
+        checkUserId(userId);
 
-        String prefix = (folder != null && !folder.isBlank())
-                ? userId + "/" + folder + "/"
-                : userId + "/";
+        String prefix = folderPrefix(userId, folder);
 
         List<FileInfoDTO> files = storageService.listUserFilesWithMetadata(prefix);
         return ResponseEntity.ok(files);
     }
 
+    // ✅ Paged listing: /list-page/user-1?folder=docs&limit=100&cursor=<continuationToken>
+    @GetMapping({"/list-page/{userId}", "/list-page/{userId}/"})
+    public ResponseEntity<FilePageDTO> listFilesPage(
+            @PathVariable String userId,
+            @RequestParam(required = false) String folder,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String cursor) {
+        checkUserId(userId);
+
+        String prefix = folderPrefix(userId, folder);
+        int pageSize = Math.max(1, Math.min(limit, maxListPageSize));
+
+        return ResponseEntity.ok(storageService.listUserFilesPage(prefix, cursor, pageSize));
+    }
+
+    // ✅ Full-text search over the user's files: /search/user-1?q=exam+results&folder=docs&limit=20
+    // Ranked best match first; files become searchable shortly after upload
+    @GetMapping({"/search/{userId}", "/search/{userId}/"})
+    public ResponseEntity<List<SearchHitDTO>> search(
+            @PathVariable String userId,
+            @RequestParam("q") String query,
+            @RequestParam(required = false) String folder,
+            @RequestParam(defaultValue = "20") int limit) {
+        checkUserId(userId);
+        return ResponseEntity.ok(searchService.search(userId, folder, query, limit));
+    }
+
     // ✅ Delete: /delete/user-1/folder1/my-document.pdf
     @DeleteMapping("/delete/{userId}/**")
     public ResponseEntity<String> deleteFile(HttpServletRequest request,
                                              @PathVariable String userId) {
+        checkUserId(userId);
         try {
             String fullPath = request.getRequestURI()
                     .split("/delete/" + userId + "/")[1];
             String blobPath = userId + "/" + fullPath;
 
             storageService.deleteFile(blobPath);
+            searchService.remove(blobPath);
+            previewService.remove(blobPath);
             return ResponseEntity.ok("Deleted: " + blobPath);
         } catch (Exception e) {
+            log.error("Delete failed for {}", request.getRequestURI(), e);
             return ResponseEntity.status(500).body("Delete failed");
         }
     }
 
+    // ✅ Delete folder runs as a background job: 202 + job, poll /delete-folder/jobs/{jobId}
     @DeleteMapping("/delete-folder/{userId}/**")
-    public ResponseEntity<String> deleteFolder(HttpServletRequest request,
-                                               @PathVariable String userId) {
+    public ResponseEntity<?> deleteFolder(HttpServletRequest request,
+                                          @PathVariable String userId) {
+        checkUserId(userId);
         try {
             String folderPath = request.getRequestURI().split("/delete-folder/" + userId + "/")[1];
             String prefix = userId + "/" + folderPath;
-            storageService.deleteFolder(prefix);
+            DeleteJobDTO job = folderDeleteService.submit(prefix);
 
-            return ResponseEntity.ok("Deleted folder: " + prefix);
+            return ResponseEntity.accepted().body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many folder deletes in progress, try again later");
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to start folder delete for {}", request.getRequestURI(), e);
             return ResponseEntity.status(500).body("Failed to delete folder");
         }
     }
 
 
+    @GetMapping("/delete-folder/jobs/{jobId}")
+    public ResponseEntity<DeleteJobDTO> getDeleteFolderJob(@PathVariable String jobId) {
+        return folderDeleteService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+
+    // A userId naming one of the app's own prefixes would expose shared content (dedup
+    // blobs, other users' previews and certificates) to reads and overwrites
+    private void checkUserId(String userId) {
+        for (String reserved : List.of(contentPrefix, previewPrefix, certificateCachePrefix)) {
+            if (userId.equals(reserved.split("/", 2)[0])) {
+                throw new BadRequestException("Reserved folder name: " + userId);
+            }
+        }
+    }
+
+    // Folder query parameters stay inside the user's folder
+    private String folderPrefix(String userId, String folder) {
+        if (folder == null || folder.isBlank()) {
+            return userId + "/";
+        }
+        if (Arrays.asList(folder.split("/")).contains("..")) {
+            throw new BadRequestException("Invalid folder: " + folder);
+        }
+        return userId + "/" + folder + "/";
+    }
+
     // ✅ Utility
     private String extractFilename(String path) {
         return path.substring(path.lastIndexOf("/") + 1);
     }
+
+    // If-Range holds either an ETag or an HTTP date; a mismatch means "send the whole file"
+    private boolean isIfRangeSatisfied(String ifRange, FileMetadataDTO metadata) {
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Strong comparison only – weak validators never satisfy If-Range
+            return !ifRange.startsWith("W/") && unquote(ifRange).equals(unquote(metadata.getETag()));
+        }
+        try {
+            ZonedDateTime since = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return metadata.getLastModified() != null
+                    && metadata.getLastModified().toEpochSecond() == since.toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    // Rejects ranges that start past the end, and range sets that add up to more
+    // than the file itself (overlapping-range amplification)
+    private void validateRanges(List<HttpRange> ranges, long size) {
+        long total = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(size);
+            long end = range.getRangeEnd(size);
+            if (start >= size || start > end) {
+                throw new IllegalArgumentException("Range not satisfiable: " + range);
+            }
+            total += end - start + 1;
+        }
+        if (ranges.size() > 1 && total > size) {
+            throw new IllegalArgumentException("Total of ranges exceeds file size");
+        }
+    }
+
+    private String contentRange(long start, long end, long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+
+    private String unquote(String eTag) {
+        return eTag != null && eTag.length() > 1 && eTag.startsWith("\"") && eTag.endsWith("\"")
+                ? eTag.substring(1, eTag.length() - 1)
+                : eTag;
+    }
+
+    private MediaType resolveContentType(FileMetadataDTO metadata) {
+        try {
+            return metadata.getContentType() != null
+                    ? MediaType.parseMediaType(metadata.getContentType())
+                    : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
 }
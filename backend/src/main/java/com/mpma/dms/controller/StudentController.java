@@ -1,15 +1,28 @@
 package com.mpma.dms.controller;
 
+import com.mpma.dms.dto.BulkImportResultDTO;
+import com.mpma.dms.dto.CertificateFilterDTO;
+import com.mpma.dms.dto.CertificateJobDTO;
+import com.mpma.dms.dto.CursorPageDTO;
 import com.mpma.dms.dto.DocumentDTO;
 import com.mpma.dms.dto.StudentDTO;
+import com.mpma.dms.dto.StudentFilterDTO;
 import com.mpma.dms.service.DocumentService;
 import com.mpma.dms.service.StudentService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/student")
@@ -31,10 +44,72 @@ public class StudentController {
     }
 
 
+    // ✅ Bulk import: raw CSV (text/csv) or JSON array (application/json) request body, read as a stream
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkImportResultDTO> importStudents(HttpServletRequest request) throws IOException {
+        boolean json = MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        try (InputStream in = request.getInputStream()) {
+            return ResponseEntity.ok(studentService.importStudents(in, json));
+        }
+    }
+
+    // Keyset-paginated listing: /page?eligible=true&minGpa=3&sort=gpa&direction=desc&limit=50&cursor=...
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<StudentDTO>> getStudentsPage(@ModelAttribute StudentFilterDTO filter) {
+        return ResponseEntity.ok(studentService.getStudentsPage(filter));
+    }
+
     @CrossOrigin(origins = "http://localhost:5173")
     @GetMapping("/{id}/certificate")
 //    @PreAuthorize("hasRole('STUDENT') or hasRole('ADMIN')")
     public ResponseEntity<?> generateCertificate(@PathVariable Long id) throws IOException {
-        return ResponseEntity.ok(studentService.generateCertificate(id));
+        try {
+            return ResponseEntity.ok(studentService.generateCertificate(id));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Certificate renderer is busy, try again later");
+        }
+    }
+
+    // ✅ Bulk certificates as a streamed ZIP: /certificates.zip?eligible=true&minGpa=3.0&maxGpa=4.0
+    @CrossOrigin(origins = "http://localhost:5173")
+    @GetMapping("/certificates.zip")
+    public ResponseEntity<StreamingResponseBody> generateCertificatesZip(@ModelAttribute CertificateFilterDTO filter) {
+        StreamingResponseBody body = out -> studentService.writeCertificatesZip(filter, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=certificates.zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    // ✅ Async certificate: 202 + job, poll the job, then fetch /pdf once COMPLETED
+    @CrossOrigin(origins = "http://localhost:5173")
+    @PostMapping("/{id}/certificate/jobs")
+    public ResponseEntity<?> submitCertificate(@PathVariable Long id) {
+        try {
+            CertificateJobDTO job = studentService.submitCertificate(id);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/student/certificate/jobs/" + job.getJobId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body("Certificate renderer is busy, try again later");
+        }
+    }
+
+    @CrossOrigin(origins = "http://localhost:5173")
+    @GetMapping("/certificate/jobs/{jobId}")
+    public ResponseEntity<CertificateJobDTO> getCertificateJob(@PathVariable String jobId) {
+        return studentService.getCertificateJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @CrossOrigin(origins = "http://localhost:5173")
+    @GetMapping("/certificate/jobs/{jobId}/pdf")
+    public ResponseEntity<byte[]> getCertificatePdf(@PathVariable String jobId) {
+        return studentService.getCertificatePdf(jobId)
+                .map(pdf -> ResponseEntity.ok().contentType(MediaType.APPLICATION_PDF).body(pdf))
+                .orElse(ResponseEntity.notFound().build());
     }
 }
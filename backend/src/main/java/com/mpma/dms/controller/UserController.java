@@ -1,7 +1,11 @@
 package com.mpma.dms.controller;
 
+import com.mpma.dms.dto.BulkImportResultDTO;
+import com.mpma.dms.dto.CursorPageDTO;
 import com.mpma.dms.dto.LoginRequest;
 import com.mpma.dms.dto.UserDTO;
+import com.mpma.dms.dto.UserFilterDTO;
+import com.mpma.dms.dto.UserSummaryDTO;
 import com.mpma.dms.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +24,12 @@ public class UserController {
         return ResponseEntity.ok(userService.createUser(userDTO));
     }
 
+    // ✅ Bulk onboarding: JSON array of users, per-row errors in the response
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkImportResultDTO> importUsers(@RequestBody List<UserDTO> users) {
+        return ResponseEntity.ok(userService.importUsers(users));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserDTO> getUserById(@PathVariable Long id) {
         return ResponseEntity.ok(userService.getUserById(id));
@@ -35,6 +45,12 @@ public class UserController {
         return ResponseEntity.ok(userService.getUsers());
     }
 
+    // Keyset-paginated listing: /page?userType=STUDENT&username=ab&sort=username&limit=50&cursor=...
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<UserSummaryDTO>> getUsersPage(@ModelAttribute UserFilterDTO filter) {
+        return ResponseEntity.ok(userService.getUsersPage(filter));
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<UserDTO> updateUser(@PathVariable Long id, @RequestBody UserDTO userDTO) {
         return ResponseEntity.ok(userService.updateUser(id, userDTO));
@@ -0,0 +1,14 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockTimingDTO {
+    private int index;
+    private long size;
+    private long millis;
+}
@@ -0,0 +1,14 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportErrorDTO {
+    private int index; // position in the request
+    private String username;
+    private String message;
+}
@@ -0,0 +1,18 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkImportResultDTO {
+    private int requested;
+    private int created;
+    private int failed;
+    private List<BulkImportErrorDTO> errors;
+}
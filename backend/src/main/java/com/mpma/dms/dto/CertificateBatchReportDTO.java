@@ -0,0 +1,19 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CertificateBatchReportDTO {
+    private long rendered;
+    private long failed;
+    private long elapsedMillis;
+    private double certificatesPerSecond;
+    private List<String> errors; // first few failures only
+}
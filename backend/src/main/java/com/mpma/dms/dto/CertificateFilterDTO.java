@@ -0,0 +1,14 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateFilterDTO {
+    private Boolean eligible; // null = any
+    private Float minGpa;
+    private Float maxGpa;
+}
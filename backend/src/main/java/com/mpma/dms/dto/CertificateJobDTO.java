@@ -0,0 +1,22 @@
+package com.mpma.dms.dto;
+
+import com.mpma.dms.enums.JobStatus;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CertificateJobDTO {
+    private String jobId;
+    private Long studentId;
+    private JobStatus status;
+    private Long renderMillis;
+    private String error;
+    private OffsetDateTime submittedAt;
+    private OffsetDateTime finishedAt;
+}
@@ -0,0 +1,15 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor; // null on the last page
+}
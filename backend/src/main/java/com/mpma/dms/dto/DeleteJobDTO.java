@@ -0,0 +1,25 @@
+package com.mpma.dms.dto;
+
+import com.mpma.dms.enums.JobStatus;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeleteJobDTO {
+    private String jobId;
+    private String prefix;
+    private JobStatus status;
+    private long listed;
+    private long deleted;
+    private long failed;
+    private List<String> errors; // first few failures only
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+}
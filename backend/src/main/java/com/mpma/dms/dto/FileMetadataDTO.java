@@ -0,0 +1,18 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileMetadataDTO {
+    private String path;
+    private long size;
+    private String eTag;
+    private String contentType;
+    private OffsetDateTime lastModified;
+}
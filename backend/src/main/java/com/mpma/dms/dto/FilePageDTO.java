@@ -0,0 +1,15 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilePageDTO {
+    private List<FileInfoDTO> items;
+    private String continuationToken; // null on the last page
+}
@@ -0,0 +1,18 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHitDTO {
+    private String path; // relative to the user folder, as used by /download/{userId}/**
+    private String name;
+    private long size;
+    private OffsetDateTime lastModified;
+    private double score;
+}
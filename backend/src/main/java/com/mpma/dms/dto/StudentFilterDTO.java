@@ -0,0 +1,19 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentFilterDTO {
+    private Boolean eligible;
+    private Float minGpa;
+    private Float maxGpa;
+    private String name;               // fullName contains, case-insensitive
+    private String sort = "id";        // id | fullName | gpa
+    private String direction = "asc";  // asc | desc
+    private String cursor;
+    private int limit = 50;
+}
@@ -0,0 +1,20 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+// One record of a student import file (CSV columns / JSON fields of the same names)
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StudentImportRowDTO {
+    private String username;
+    private String password; // plaintext, or an existing BCrypt hash
+    private String fullName;
+    private String nameWithInitials;
+    private String nic;
+    private Float gpa;
+    private Boolean eligible;
+}
@@ -0,0 +1,18 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadResultDTO {
+    private String path;
+    private long size;
+    private int blockCount;
+    private long totalMillis;
+    private List<BlockTimingDTO> blocks;
+}
@@ -0,0 +1,19 @@
+package com.mpma.dms.dto;
+
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessionDTO {
+    private String sessionId;
+    private String path;
+    private long size;
+    private long offset; // bytes stored so far; the next chunk starts here
+    private OffsetDateTime expiresAt;
+}
@@ -0,0 +1,18 @@
+package com.mpma.dms.dto;
+
+import com.mpma.dms.enums.UserType;
+import lombok.*;
+
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserFilterDTO {
+    private UserType userType;
+    private String username;           // prefix match, case-insensitive
+    private String sort = "id";        // id | username
+    private String direction = "asc";  // asc | desc
+    private String cursor;
+    private int limit = 50;
+}
@@ -0,0 +1,22 @@
+package com.mpma.dms.dto;
+
+import com.mpma.dms.enums.UserType;
+import lombok.*;
+
+// Listing projection: built directly by a JPQL constructor expression,
+// user and student columns in one row, no password or token
+@Getter
+@Setter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDTO {
+    private Long id;
+    private String username;
+    private UserType userType;
+    private String fullName;
+    private String nameWithInitials;
+    private String nic;
+    private Float gpa;
+    private Boolean eligible;
+}
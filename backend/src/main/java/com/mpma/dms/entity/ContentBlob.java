@@ -0,0 +1,34 @@
+package com.mpma.dms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+// One row per content-addressed blob in dedup mode: how many user paths point at it.
+// Counts only change through the atomic updates in ContentBlobRepository.
+@Entity
+@Table(name = "content_blob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentBlob {
+
+    // Hex SHA-256 of the content
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private long refCount;
+
+    // Set when refCount reaches zero; cleared when the content is referenced again
+    private OffsetDateTime orphanedAt;
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_student_id", columnList = "student_id, id"),
+        @Index(name = "idx_documents_student_type", columnList = "student_id, document_type, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
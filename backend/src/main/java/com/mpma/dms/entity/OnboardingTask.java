@@ -0,0 +1,42 @@
+package com.mpma.dms.entity;
+
+import com.mpma.dms.enums.JobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+// Outbox row for post-registration work (default folder skeleton). Written in the
+// same transaction as the user and processed after commit, with retries.
+@Entity
+@Table(name = "onboarding_task")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OnboardingTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "onboarding_task_seq")
+    @SequenceGenerator(name = "onboarding_task_seq", sequenceName = "onboarding_task_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status;
+
+    private int attempts;
+
+    // Due time for QUEUED tasks; lease expiry for RUNNING ones
+    @Column(nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,8 @@
+package com.mpma.dms.enums;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.mpma.dms.exception;
+
+// Invalid client input; the message is returned to the client as the 400 body
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.mpma.dms.exception;
+
+public class NotFoundException extends RuntimeException {
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
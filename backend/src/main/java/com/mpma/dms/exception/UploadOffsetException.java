@@ -0,0 +1,14 @@
+package com.mpma.dms.exception;
+
+import lombok.Getter;
+
+// A chunk that does not start at the committed offset of its upload session
+@Getter
+public class UploadOffsetException extends RuntimeException {
+    private final long committedOffset;
+
+    public UploadOffsetException(String message, long committedOffset) {
+        super(message);
+        this.committedOffset = committedOffset;
+    }
+}
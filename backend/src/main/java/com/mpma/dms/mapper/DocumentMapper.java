@@ -0,0 +1,20 @@
+package com.mpma.dms.mapper;
+
+import com.mpma.dms.dto.DocumentDTO;
+import com.mpma.dms.entity.Document;
+
+public final class DocumentMapper {
+
+    private DocumentMapper() {
+    }
+
+    public static DocumentDTO toDTO(Document document) {
+        return new DocumentDTO(
+                document.getId(),
+                document.getStudentId(),
+                document.getDocumentName(),
+                document.getDocumentType(),
+                document.getDocumentUrl()
+        );
+    }
+}
@@ -0,0 +1,35 @@
+package com.mpma.dms.mapper;
+
+import com.mpma.dms.dto.StudentDTO;
+import com.mpma.dms.entity.Student;
+import com.mpma.dms.entity.User;
+
+// Plain field-by-field copies instead of reflective BeanUtils.copyProperties
+public final class StudentMapper {
+
+    private StudentMapper() {
+    }
+
+    public static StudentDTO toDTO(Student student) {
+        return new StudentDTO(
+                student.getId(),
+                student.getFullName(),
+                student.getNameWithInitials(),
+                student.getNic(),
+                student.getGpa(),
+                student.isEligible()
+        );
+    }
+
+    // New (unsaved) student linked to its user; @MapsId takes the ID from the user
+    public static Student toEntity(StudentDTO studentDTO, User user) {
+        return Student.builder()
+                .fullName(studentDTO.getFullName())
+                .nameWithInitials(studentDTO.getNameWithInitials())
+                .nic(studentDTO.getNic())
+                .gpa(studentDTO.getGpa())
+                .isEligible(studentDTO.isEligible())
+                .user(user)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.mpma.dms.mapper;
+
+import com.mpma.dms.dto.UserDTO;
+import com.mpma.dms.entity.User;
+
+public final class UserMapper {
+
+    private UserMapper() {
+    }
+
+    // Outbound DTOs never carry the password hash or a stored token; login sets a fresh token itself
+    public static UserDTO toDTO(User user) {
+        return new UserDTO(
+                user.getStudent() != null ? StudentMapper.toDTO(user.getStudent()) : null,
+                user.getId(),
+                user.getUsername(),
+                null,
+                null,
+                user.getUserType()
+        );
+    }
+
+    // New (unsaved) user; the password must already be hashed. The client's id and token are
+    // ignored: an id would turn the save into a merge over an existing row, and tokens are
+    // only ever issued by login
+    public static User toEntity(UserDTO userDTO, String passwordHash) {
+        return User.builder()
+                .userType(userDTO.getUserType())
+                .username(userDTO.getUsername())
+                .password(passwordHash)
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.mpma.dms.repository;
+
+import com.mpma.dms.entity.ContentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+
+    // Insert-or-increment in one statement, so concurrent first uploads of the same content cannot collide
+    @Transactional
+    @Modifying
+    @Query(value = "insert into content_blob (hash, size, ref_count, orphaned_at) values (:hash, :size, 1, null) " +
+            "on conflict (hash) do update set ref_count = content_blob.ref_count + 1, orphaned_at = null",
+            nativeQuery = true)
+    int acquire(@Param("hash") String hash, @Param("size") long size);
+
+    @Transactional
+    @Modifying
+    @Query("update ContentBlob c set c.refCount = c.refCount - 1, " +
+            "c.orphanedAt = case when c.refCount <= 1 then :now else c.orphanedAt end " +
+            "where c.hash = :hash and c.refCount > 0")
+    int release(@Param("hash") String hash, @Param("now") OffsetDateTime now);
+
+    // Locks the returned rows until commit; rows another node is sweeping are skipped
+    @Query(value = "select hash from content_blob where ref_count <= 0 and orphaned_at < :cutoff " +
+            "order by orphaned_at limit :limit for update skip locked", nativeQuery = true)
+    List<String> lockOrphans(@Param("cutoff") OffsetDateTime cutoff, @Param("limit") int limit);
+}
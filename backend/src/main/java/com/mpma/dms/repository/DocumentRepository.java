@@ -1,6 +1,7 @@
 package com.mpma.dms.repository;
 
 import com.mpma.dms.entity.Document;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,14 @@ import java.util.List;
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByStudentId(String studentId);
+
+    // Keyset pages ordered by id; both are served by the (student_id, [document_type,] id) indexes
+    List<Document> findByStudentIdAndIdGreaterThanOrderByIdAsc(String studentId, Long afterId, Pageable pageable);
+
+    List<Document> findByStudentIdAndDocumentTypeAndIdGreaterThanOrderByIdAsc(String studentId, String documentType,
+                                                                              Long afterId, Pageable pageable);
+
+    long countByStudentId(String studentId);
+
+    long countByStudentIdAndDocumentType(String studentId, String documentType);
 }
@@ -0,0 +1,40 @@
+package com.mpma.dms.repository;
+
+import com.mpma.dms.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Position after the last row of a keyset page: the sort column's value plus the id
+// as tie-breaker. Encoded as an opaque URL-safe token for clients. The token records the
+// sort it was issued for, so it cannot be replayed against a different ordering.
+public record KeysetCursor(String sort, String value, long id) {
+
+    // "column,direction" as the cursor's sort, e.g. "gpa,desc"
+    public static String sortKey(String sort, String direction) {
+        return (sort != null ? sort : "id") + "," + ("desc".equalsIgnoreCase(direction) ? "desc" : "asc");
+    }
+
+    public String encode() {
+        String raw = sort + ":" + id + ":" + (value != null ? value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token, String expectedSort) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        KeysetCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            cursor = new KeysetCursor(parts[0], parts[2], Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (!cursor.sort().equals(expectedSort)) {
+            throw new BadRequestException("Cursor was issued for sort " + cursor.sort() + ", not " + expectedSort);
+        }
+        return cursor;
+    }
+}
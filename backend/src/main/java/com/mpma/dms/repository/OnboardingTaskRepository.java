@@ -0,0 +1,29 @@
+package com.mpma.dms.repository;
+
+import com.mpma.dms.entity.OnboardingTask;
+import com.mpma.dms.enums.JobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OnboardingTaskRepository extends JpaRepository<OnboardingTask, Long> {
+
+    // Queued tasks that are due, plus running tasks whose lease ran out (crashed node)
+    @Query("select t.id from OnboardingTask t where t.status in :statuses and t.nextAttemptAt <= :now order by t.id")
+    List<Long> findDueIds(@Param("statuses") Collection<JobStatus> statuses, @Param("now") OffsetDateTime now, Pageable pageable);
+
+    // Atomic claim: only one worker (on any node) wins a given task
+    @Transactional
+    @Modifying
+    @Query("update OnboardingTask t set t.status = com.mpma.dms.enums.JobStatus.RUNNING, t.nextAttemptAt = :leaseUntil, " +
+            "t.attempts = t.attempts + 1 where t.id = :id and t.status in :statuses and t.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("statuses") Collection<JobStatus> statuses,
+              @Param("now") OffsetDateTime now, @Param("leaseUntil") OffsetDateTime leaseUntil);
+}
@@ -1,12 +1,34 @@
 package com.mpma.dms.repository;
 
 
+import com.mpma.dms.dto.StudentDTO;
 import com.mpma.dms.entity.Student;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Long>{
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentRepositoryCustom {
+
+    // Projection straight into DTOs: skips loading the (eager) user of every student
+    @Query("select new com.mpma.dms.dto.StudentDTO(s.id, s.fullName, s.nameWithInitials, s.nic, s.gpa, s.isEligible) " +
+            "from Student s order by s.id")
+    List<StudentDTO> findAllSummaries();
+
+    // Keyset batch for bulk certificate runs; user is fetched in the same query
+    @Query("select s from Student s join fetch s.user " +
+            "where s.id > :afterId " +
+            "and (:eligible is null or s.isEligible = :eligible) " +
+            "and (:minGpa is null or s.gpa >= :minGpa) " +
+            "and (:maxGpa is null or s.gpa <= :maxGpa) " +
+            "order by s.id")
+    List<Student> findCertificateBatch(@Param("afterId") Long afterId,
+                                       @Param("eligible") Boolean eligible,
+                                       @Param("minGpa") Float minGpa,
+                                       @Param("maxGpa") Float maxGpa,
+                                       Pageable pageable);
 }
@@ -0,0 +1,11 @@
+package com.mpma.dms.repository;
+
+import com.mpma.dms.dto.StudentDTO;
+import com.mpma.dms.dto.StudentFilterDTO;
+
+import java.util.List;
+
+public interface StudentRepositoryCustom {
+    // Up to limit rows after the cursor (null = first page), projected straight into StudentDTO
+    List<StudentDTO> findStudentSummaries(StudentFilterDTO filter, KeysetCursor after, int limit);
+}
@@ -0,0 +1,84 @@
+package com.mpma.dms.repository;
+
+import com.mpma.dms.dto.StudentDTO;
+import com.mpma.dms.dto.StudentFilterDTO;
+import com.mpma.dms.exception.BadRequestException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StudentRepositoryCustomImpl implements StudentRepositoryCustom {
+
+    // Nullable sort columns are coalesced so keyset comparisons stay well defined
+    private static final Map<String, String> SORT_EXPRESSIONS = Map.of(
+            "fullName", "coalesce(s.fullName, '')",
+            "gpa", "coalesce(s.gpa, 0)"
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<StudentDTO> findStudentSummaries(StudentFilterDTO filter, KeysetCursor after, int limit) {
+        String sortExpression = SORT_EXPRESSIONS.get(filter.getSort());
+        boolean descending = "desc".equalsIgnoreCase(filter.getDirection());
+        String cmp = descending ? "<" : ">";
+        String order = descending ? " desc" : " asc";
+
+        StringBuilder jpql = new StringBuilder(
+                "select new com.mpma.dms.dto.StudentDTO(" +
+                        "s.id, s.fullName, s.nameWithInitials, s.nic, s.gpa, s.isEligible) " +
+                        "from Student s where 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (filter.getEligible() != null) {
+            jpql.append(" and s.isEligible = :eligible");
+            params.put("eligible", filter.getEligible());
+        }
+        if (filter.getMinGpa() != null) {
+            jpql.append(" and s.gpa >= :minGpa");
+            params.put("minGpa", filter.getMinGpa());
+        }
+        if (filter.getMaxGpa() != null) {
+            jpql.append(" and s.gpa <= :maxGpa");
+            params.put("maxGpa", filter.getMaxGpa());
+        }
+        if (filter.getName() != null && !filter.getName().isBlank()) {
+            jpql.append(" and lower(s.fullName) like :name");
+            params.put("name", "%" + filter.getName().toLowerCase() + "%");
+        }
+
+        if (after != null) {
+            if (sortExpression != null) {
+                jpql.append(" and (").append(sortExpression).append(" ").append(cmp).append(" :afterValue")
+                        .append(" or (").append(sortExpression).append(" = :afterValue and s.id ").append(cmp).append(" :afterId))");
+                params.put("afterValue", "gpa".equals(filter.getSort()) ? (Object) parseGpa(after.value()) : after.value());
+            } else {
+                jpql.append(" and s.id ").append(cmp).append(" :afterId");
+            }
+            params.put("afterId", after.id());
+        }
+
+        jpql.append(" order by ");
+        if (sortExpression != null) {
+            jpql.append(sortExpression).append(order).append(", ");
+        }
+        jpql.append("s.id").append(order);
+
+        TypedQuery<StudentDTO> query = entityManager.createQuery(jpql.toString(), StudentDTO.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private static Float parseGpa(String value) {
+        try {
+            return Float.valueOf(value);
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
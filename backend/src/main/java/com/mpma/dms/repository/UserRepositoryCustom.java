@@ -0,0 +1,11 @@
+package com.mpma.dms.repository;
+
+import com.mpma.dms.dto.UserFilterDTO;
+import com.mpma.dms.dto.UserSummaryDTO;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+    // Up to limit rows after the cursor (null = first page), user and student in one query
+    List<UserSummaryDTO> findUserSummaries(UserFilterDTO filter, KeysetCursor after, int limit);
+}
@@ -0,0 +1,61 @@
+package com.mpma.dms.repository;
+
+import com.mpma.dms.dto.UserFilterDTO;
+import com.mpma.dms.dto.UserSummaryDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummaryDTO> findUserSummaries(UserFilterDTO filter, KeysetCursor after, int limit) {
+        boolean byUsername = "username".equals(filter.getSort());
+        boolean descending = "desc".equalsIgnoreCase(filter.getDirection());
+        String cmp = descending ? "<" : ">";
+        String order = descending ? " desc" : " asc";
+
+        StringBuilder jpql = new StringBuilder(
+                "select new com.mpma.dms.dto.UserSummaryDTO(" +
+                        "u.id, u.username, u.userType, s.fullName, s.nameWithInitials, s.nic, s.gpa, s.isEligible) " +
+                        "from User u left join u.student s where 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (filter.getUserType() != null) {
+            jpql.append(" and u.userType = :userType");
+            params.put("userType", filter.getUserType());
+        }
+        if (filter.getUsername() != null && !filter.getUsername().isBlank()) {
+            jpql.append(" and lower(u.username) like :username");
+            params.put("username", filter.getUsername().toLowerCase() + "%");
+        }
+
+        if (after != null) {
+            if (byUsername) {
+                jpql.append(" and (u.username ").append(cmp).append(" :afterValue")
+                        .append(" or (u.username = :afterValue and u.id ").append(cmp).append(" :afterId))");
+                params.put("afterValue", after.value());
+            } else {
+                jpql.append(" and u.id ").append(cmp).append(" :afterId");
+            }
+            params.put("afterId", after.id());
+        }
+
+        jpql.append(" order by ");
+        if (byUsername) {
+            jpql.append("u.username").append(order).append(", ");
+        }
+        jpql.append("u.id").append(order);
+
+        TypedQuery<UserSummaryDTO> query = entityManager.createQuery(jpql.toString(), UserSummaryDTO.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
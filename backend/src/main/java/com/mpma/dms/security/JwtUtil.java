@@ -1,5 +1,10 @@
 package com.mpma.dms.security;
 
+import com.mpma.dms.entity.User;
+import com.mpma.dms.enums.UserType;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -15,12 +20,49 @@ public class JwtUtil {
 
     private static final SecretKey SECRET_KEY = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
 
+    // Parsers are immutable and thread-safe, so the key is only set up once
+    private static final JwtParser PARSER = Jwts.parserBuilder().setSigningKey(SECRET_KEY).build();
+
+    private static final long EXPIRY_MILLIS = 1000 * 60 * 60; // 1 hour expiry
+
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String USER_TYPE_CLAIM = "type";
+
     public static String generateToken(String username) {
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60)) // 1 hour expiry
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRY_MILLIS))
+                .signWith(SECRET_KEY, SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    // ✅ Carries the user id and type so requests can be authenticated without a user lookup
+    public static String generateToken(User user) {
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(USER_TYPE_CLAIM, user.getUserType() != null ? user.getUserType().name() : null)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRY_MILLIS))
                 .signWith(SECRET_KEY, SignatureAlgorithm.HS512)
                 .compact();
     }
+
+    // Verifies signature and expiry; throws JwtException for any invalid token
+    public static TokenClaims verifyToken(String token) {
+        Claims claims = PARSER.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token has no expiry");
+        }
+
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        String userType = claims.get(USER_TYPE_CLAIM, String.class);
+        return new TokenClaims(
+                userId != null ? userId.longValue() : null,
+                claims.getSubject(),
+                userType != null ? UserType.valueOf(userType) : null,
+                claims.getExpiration().getTime()
+        );
+    }
 }
@@ -0,0 +1,133 @@
+package com.mpma.dms.security;
+
+import com.mpma.dms.exception.BadRequestException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+
+// BCrypt hashing on a dedicated, bounded pool. Request threads hand the work off and
+// wait; once the queue is full new work is rejected immediately (RejectedExecutionException,
+// mapped to 503) instead of piling CPU-heavy hashes onto the Tomcat threads.
+@Component
+public class PasswordHasher {
+
+    // 0 = one hashing thread per CPU
+    @Value("${security.password.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${security.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    // Upper bound for one hash or check, including time spent queued
+    @Value("${security.password.timeout-seconds:10}")
+    private long timeoutSeconds;
+
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    private BCryptPasswordEncoder encoder;
+
+    private ThreadPoolExecutor hashExecutor;
+
+    @PostConstruct
+    public void init() {
+        encoder = new BCryptPasswordEncoder(bcryptStrength);
+
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        hashExecutor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    // Throws RejectedExecutionException when the hashing queue is full
+    public String hash(String rawPassword) {
+        if (rawPassword == null || rawPassword.isEmpty()) {
+            throw new BadRequestException("Password is required");
+        }
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    // Bulk hashing with at most one task per hashing thread in flight, so a large
+    // import leaves the queue free for logins. Results are in input order.
+    public List<String> hashAll(List<String> rawPasswords) {
+        for (String rawPassword : rawPasswords) {
+            if (rawPassword == null || rawPassword.isEmpty()) {
+                throw new BadRequestException("Password is required");
+            }
+        }
+
+        int window = hashExecutor.getCorePoolSize();
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        Deque<Future<String>> inFlight = new ArrayDeque<>(window);
+        try {
+            for (String rawPassword : rawPasswords) {
+                if (inFlight.size() >= window) {
+                    hashes.add(await(inFlight.removeFirst()));
+                }
+                inFlight.addLast(hashExecutor.submit(() -> encoder.encode(rawPassword)));
+            }
+            while (!inFlight.isEmpty()) {
+                hashes.add(await(inFlight.removeFirst()));
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+        return hashes;
+    }
+
+    // Throws RejectedExecutionException when the hashing queue is full
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            // Accounts created before hashing was introduced; callers re-hash on success
+            return MessageDigest.isEqual(
+                    rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return run(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    public boolean isHashed(String storedPassword) {
+        return storedPassword.startsWith("$2a$") || storedPassword.startsWith("$2b$") || storedPassword.startsWith("$2y$");
+    }
+
+    private <T> T run(Callable<T> task) {
+        return await(hashExecutor.submit(task));
+    }
+
+    private <T> T await(Future<T> result) {
+        try {
+            return result.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new IllegalStateException("Password hashing interrupted", e);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new RejectedExecutionException("Password hashing timed out", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.mpma.dms.security;
+
+import com.mpma.dms.enums.UserType;
+
+// Verified contents of an access token; used as the authenticated principal
+public record TokenClaims(Long userId, String username, UserType userType, long expiresAtMillis) {
+
+    public boolean isExpired() {
+        return expiresAtMillis <= System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,59 @@
+package com.mpma.dms.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// Bounded LRU of verified token claims, keyed by the SHA-256 of the token so raw
+// tokens are never held in memory. Entries are dropped once the token expires, and
+// only successfully verified tokens are cached.
+@Component
+public class TokenClaimsCache {
+
+    @Value("${security.jwt.claims-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final LinkedHashMap<String, TokenClaims> claimsByHash = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TokenClaims> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public TokenClaims get(String token, Function<String, TokenClaims> verifier) {
+        String key = hash(token);
+        synchronized (this) {
+            TokenClaims cached = claimsByHash.get(key);
+            if (cached != null) {
+                if (!cached.isExpired()) {
+                    return cached;
+                }
+                claimsByHash.remove(key);
+            }
+        }
+
+        TokenClaims verified = verifier.apply(token);
+        if (!verified.isExpired()) {
+            synchronized (this) {
+                claimsByHash.put(key, verified);
+            }
+        }
+        return verified;
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.mpma.dms.service;
+
+/**
+ * Receives progress from {@link StorageBackend#deleteFolder(String, DeleteProgress)}.
+ * Implementations must be thread-safe: backends report from several workers at once.
+ */
+public interface DeleteProgress {
+
+    DeleteProgress NONE = new DeleteProgress() {
+        @Override
+        public void listed(int count) {
+        }
+
+        @Override
+        public void deleted(int count) {
+        }
+
+        @Override
+        public void failed(String path, String reason) {
+        }
+    };
+
+    void listed(int count);
+    void deleted(int count);
+    void failed(String path, String reason);
+}
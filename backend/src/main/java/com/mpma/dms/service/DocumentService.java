@@ -1,5 +1,6 @@
 package com.mpma.dms.service;
 
+import com.mpma.dms.dto.CursorPageDTO;
 import com.mpma.dms.dto.DocumentDTO;
 import java.util.List;
 
@@ -7,6 +8,9 @@ public interface DocumentService {
     DocumentDTO createDocument(DocumentDTO documentDTO);
     DocumentDTO getDocumentById(Long id);
     List<DocumentDTO> getDocumentsByStudentId(String studentId);
+    // documentType is optional; cursor is the nextCursor of the previous page
+    CursorPageDTO<DocumentDTO> getDocumentsPage(String studentId, String documentType, String cursor, int limit);
+    long countDocuments(String studentId, String documentType);
     DocumentDTO updateDocument(Long id, DocumentDTO documentDTO);
     void deleteDocument(Long id);
 }
@@ -0,0 +1,17 @@
+package com.mpma.dms.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface FolderArchiveService {
+
+    // Fails fast with RejectedExecutionException when all concurrent archive slots are taken.
+    // Nothing is reserved here: the returned writer takes a slot when it starts writing and
+    // releases it when it finishes, so a response body that never runs holds no slot
+    ArchiveWriter open(String folderPrefix);
+
+    @FunctionalInterface
+    interface ArchiveWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
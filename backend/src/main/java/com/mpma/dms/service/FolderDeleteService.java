@@ -0,0 +1,10 @@
+package com.mpma.dms.service;
+
+import com.mpma.dms.dto.DeleteJobDTO;
+
+import java.util.Optional;
+
+public interface FolderDeleteService {
+    DeleteJobDTO submit(String folderPrefix);
+    Optional<DeleteJobDTO> getJob(String jobId);
+}
@@ -0,0 +1,9 @@
+package com.mpma.dms.service;
+
+import java.util.Collection;
+
+public interface OnboardingService {
+    // Records onboarding for the users in the caller's transaction; runs after commit
+    void enqueue(Collection<Long> userIds);
+    void processDue();
+}
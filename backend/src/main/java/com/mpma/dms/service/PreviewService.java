@@ -0,0 +1,22 @@
+package com.mpma.dms.service;
+
+import com.mpma.dms.dto.FileMetadataDTO;
+
+import java.util.Optional;
+
+/**
+ * First-page thumbnails for uploaded PDFs and images, rendered in the background
+ * and stored as sidecar files next to (not inside) the user's folders.
+ */
+public interface PreviewService {
+    void renderAsync(String pathWithFilename);
+
+    // Metadata of the stored preview, empty while it is not rendered (or for unsupported files)
+    Optional<FileMetadataDTO> findPreview(String pathWithFilename);
+
+    // Path of the preview in storage, for downloading it
+    String previewPath(String pathWithFilename);
+
+    void remove(String pathWithFilename);
+    void removeFolder(String folderPrefix);
+}
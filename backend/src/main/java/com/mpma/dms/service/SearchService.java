@@ -0,0 +1,18 @@
+package com.mpma.dms.service;
+
+import com.mpma.dms.dto.SearchHitDTO;
+
+import java.util.List;
+
+/**
+ * Full-text search over uploaded files, one index per user ("userId/..." paths).
+ * Indexing runs in the background, so a file becomes searchable shortly after upload.
+ */
+public interface SearchService {
+    void indexAsync(String pathWithFilename);
+    void remove(String pathWithFilename);
+    void removeFolder(String folderPrefix);
+
+    // folder is optional and relative to the user folder
+    List<SearchHitDTO> search(String userId, String folder, String query, int limit);
+}
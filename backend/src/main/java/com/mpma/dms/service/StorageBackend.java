@@ -0,0 +1,46 @@
+package com.mpma.dms.service;
+
+import com.mpma.dms.dto.FileInfoDTO;
+import com.mpma.dms.dto.FileMetadataDTO;
+import com.mpma.dms.dto.FilePageDTO;
+import com.mpma.dms.dto.UploadResultDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Storage for user files, addressed by "userId/folder/.../file" paths.
+ * The active implementation is chosen with {@code storage.backend} (azure | local).
+ */
+public interface StorageBackend {
+    UploadResultDTO uploadFile(MultipartFile file, String pathWithFilename) throws IOException;
+    void uploadFileFromText(String path, String content);
+    void uploadFileFromBytes(String path, byte[] content);
+    FileMetadataDTO getFileMetadata(String pathWithFilename);
+
+    // eTag is optional; when given the read fails if the file changed since getFileMetadata
+    void downloadFile(String pathWithFilename, String eTag, OutputStream out) throws IOException;
+    void downloadFileRange(String pathWithFilename, String eTag, long offset, long count, OutputStream out) throws IOException;
+
+    List<FileInfoDTO> listUserFilesWithMetadata(String prefix);
+
+    // continuationToken is null for the first page; the returned page carries the next token
+    FilePageDTO listUserFilesPage(String prefix, String continuationToken, int pageSize);
+
+    // Resumable uploads: blocks are staged for the target path under uploadId (offset is where
+    // the block starts in the file) and only become the file, in index order, on commitBlocks.
+    // Staged blocks are not visible to reads or listings.
+    void stageBlock(String pathWithFilename, String uploadId, int index, long offset, byte[] data, int length) throws IOException;
+    void commitBlocks(String pathWithFilename, String uploadId, int blockCount, long size) throws IOException;
+    void abortBlocks(String pathWithFilename, String uploadId);
+
+    void deleteFile(String pathWithFilename);
+
+    default void deleteFolder(String folderPrefix) {
+        deleteFolder(folderPrefix, DeleteProgress.NONE);
+    }
+
+    void deleteFolder(String folderPrefix, DeleteProgress progress);
+}
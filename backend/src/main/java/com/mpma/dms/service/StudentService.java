@@ -1,16 +1,37 @@
 package com.mpma.dms.service;
 
+import com.mpma.dms.dto.BulkImportResultDTO;
+import com.mpma.dms.dto.CertificateBatchReportDTO;
+import com.mpma.dms.dto.CertificateFilterDTO;
+import com.mpma.dms.dto.CertificateJobDTO;
+import com.mpma.dms.dto.CursorPageDTO;
 import com.mpma.dms.dto.DocumentDTO;
 import com.mpma.dms.dto.StudentDTO;
+import com.mpma.dms.dto.StudentFilterDTO;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Optional;
 
 public interface StudentService {
 
 
     StudentDTO getStudentById(Long id);
     List<StudentDTO> getStudents();
+    CursorPageDTO<StudentDTO> getStudentsPage(StudentFilterDTO filter);
+
+    // Streams a CSV or JSON file of students into users + students; errors are reported per row
+    BulkImportResultDTO importStudents(InputStream in, boolean json) throws IOException;
 
     byte[] generateCertificate(Long id) throws IOException;
+
+    // Async rendering: submit returns immediately, then poll the job and fetch the PDF
+    CertificateJobDTO submitCertificate(Long id);
+    Optional<CertificateJobDTO> getCertificateJob(String jobId);
+    Optional<byte[]> getCertificatePdf(String jobId);
+
+    // Renders all matching certificates into a ZIP written to out; report.json is the last entry
+    CertificateBatchReportDTO writeCertificatesZip(CertificateFilterDTO filter, OutputStream out) throws IOException;
 }
@@ -0,0 +1,24 @@
+package com.mpma.dms.service;
+
+import com.mpma.dms.dto.UploadResultDTO;
+import com.mpma.dms.dto.UploadSessionDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Resumable uploads: a session is created with the final size, chunks are appended at the
+ * committed offset, and complete() turns the stored chunks into the file. After a broken
+ * connection the client asks for the offset and resends from there.
+ */
+public interface UploadSessionService {
+    UploadSessionDTO create(String pathWithFilename, long size);
+    Optional<UploadSessionDTO> getSession(String sessionId);
+
+    // offset must equal the committed offset, otherwise UploadOffsetException
+    UploadSessionDTO append(String sessionId, long offset, InputStream chunk) throws IOException;
+
+    UploadResultDTO complete(String sessionId) throws IOException;
+    void abort(String sessionId);
+}
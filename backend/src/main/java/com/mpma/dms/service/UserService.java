@@ -1,14 +1,20 @@
 package com.mpma.dms.service;
 
+import com.mpma.dms.dto.BulkImportResultDTO;
+import com.mpma.dms.dto.CursorPageDTO;
 import com.mpma.dms.dto.UserDTO;
+import com.mpma.dms.dto.UserFilterDTO;
+import com.mpma.dms.dto.UserSummaryDTO;
 
 import java.io.IOException;
 import java.util.List;
 
 public interface UserService {
     UserDTO createUser(UserDTO userDTO);
+    BulkImportResultDTO importUsers(List<UserDTO> users);
     UserDTO getUserById(Long id);
     List<UserDTO> getUsers();
+    CursorPageDTO<UserSummaryDTO> getUsersPage(UserFilterDTO filter);
     UserDTO userAuth(String username, String password);
     UserDTO updateUser(Long id, UserDTO userDTO);
 
@@ -1,23 +1,65 @@
 package com.mpma.dms.service.impl;
 
 import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.PagedResponse;
+import com.azure.core.http.rest.Response;
 import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
 import com.azure.storage.blob.*;
+import com.azure.storage.blob.batch.BlobBatch;
+import com.azure.storage.blob.batch.BlobBatchClient;
+import com.azure.storage.blob.batch.BlobBatchClientBuilder;
 import com.azure.storage.blob.models.*;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import com.azure.storage.blob.options.BlockBlobCommitBlockListOptions;
+import com.azure.storage.blob.options.BlockBlobSimpleUploadOptions;
 import com.azure.storage.blob.specialized.BlockBlobClient;
 import com.mpma.dms.dto.FileInfoDTO;
+import com.mpma.dms.dto.FilePageDTO;
+import com.mpma.dms.dto.FileMetadataDTO;
+import com.mpma.dms.config.ExecutionMode;
+import com.mpma.dms.dto.BlockTimingDTO;
+import com.mpma.dms.dto.UploadResultDTO;
+import com.mpma.dms.exception.NotFoundException;
+import com.mpma.dms.service.DeleteProgress;
+import com.mpma.dms.service.StorageBackend;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 @Service
-public class AzureStorageService {
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "storage.backend", havingValue = "azure", matchIfMissing = true)
+public class AzureStorageService implements StorageBackend {
+
+    private final FileListingCache listingCache;
+
+    private final ExecutionMode executionMode;
+
+    private final StorageMetrics storageMetrics;
+
+    private final ContentRefIndex contentRefIndex;
 
     @Value("${azure.storage.connection-string}")
     private String connectionString;
@@ -25,8 +67,70 @@ public class AzureStorageService {
     @Value("${azure.storage.container-name}")
     private String containerName;
 
+    // Size of each ranged read against the blob while streaming a download
+    @Value("${azure.storage.download.block-size:4194304}")
+    private int downloadBlockSize;
+
+    // Size of the copy buffer between the blob stream and the response
+    @Value("${azure.storage.download.buffer-size:65536}")
+    private int downloadBufferSize;
+
+    // Upload block size; files no larger than this are sent in one request
+    @Value("${azure.storage.upload.block-size:8388608}")
+    private int uploadBlockSize;
+
+    // Blocks staged concurrently for a single upload
+    @Value("${azure.storage.upload.parallelism:4}")
+    private int uploadParallelism;
+
+    // Worker threads shared by all uploads (platform-thread mode only)
+    @Value("${azure.storage.upload.pool-size:16}")
+    private int uploadPoolSize;
+
+    // Batch delete requests in flight at once (each batch removes up to 256 blobs)
+    @Value("${azure.storage.delete.parallelism:4}")
+    private int deleteParallelism;
+
+    // Single-instance storage: bytes are stored once under contentPrefix + SHA-256 and user
+    // paths become empty pointer blobs naming the content in their metadata. Keep it on once
+    // enabled – existing paths are pointers from then on.
+    @Value("${storage.dedup.enabled:false}")
+    private boolean dedupEnabled;
+
+    @Value("${storage.dedup.content-prefix:_content/}")
+    private String contentPrefix;
+
+    // Unreferenced content is kept this long before the sweep deletes it
+    @Value("${storage.dedup.orphan-grace-minutes:60}")
+    private long orphanGraceMinutes;
+
+    @Value("${storage.dedup.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    // Blob batch API limit
+    private static final int MAX_BATCH_SIZE = 256;
+
+    // Under contentPrefix; large dedup uploads are staged here until their hash is known
+    private static final String STAGING_FOLDER = "staging/";
+
+    // Pointer blob metadata (names must be valid C# identifiers)
+    private static final String META_CONTENT = "dmscontent";
+    private static final String META_SIZE = "dmssize";
+
+    // ETag handed out for deduplicated files; content blobs never change, so the hash is a valid ETag
+    private static final String CONTENT_ETAG_PREFIX = "\"sha256-";
+
+    // backend tag on the dms.storage.* metrics
+    private static final String BACKEND = "azure";
+
     private BlobContainerClient containerClient;
 
+    private BlobBatchClient batchClient;
+
+    private ExecutorService uploadExecutor;
+
+    private ExecutorService deleteExecutor;
+
     @PostConstruct
     public void init() {
         BlobServiceClient serviceClient = new BlobServiceClientBuilder()
@@ -37,65 +141,566 @@ public class AzureStorageService {
         if (!containerClient.exists()) {
             containerClient.create();
         }
+
+        batchClient = new BlobBatchClientBuilder(serviceClient).buildClient();
+
+        // Both only block on HTTP round trips; per-call semaphores bound their concurrency
+        uploadExecutor = executionMode.newBlockingExecutor("blob-upload-", uploadPoolSize);
+        deleteExecutor = executionMode.newBlockingExecutor("blob-delete-", deleteParallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdownNow();
+        deleteExecutor.shutdownNow();
     }
 
     // ✅ Upload with folder support
-    public void uploadFile(MultipartFile file, String pathWithFilename) throws IOException {
-        BlobClient blobClient = containerClient.getBlobClient(pathWithFilename);
-        blobClient.upload(file.getInputStream(), file.getSize(), true);
+    // Files up to one block go up in a single call; larger files are split into
+    // staged blocks, uploadParallelism of them in flight at once, then committed.
+    @Override
+    public UploadResultDTO uploadFile(MultipartFile file, String pathWithFilename) throws IOException {
+        return storageMetrics.call(BACKEND, "upload", () -> dedupEnabled
+                ? uploadDeduplicated(file, pathWithFilename)
+                : uploadMultipart(file, pathWithFilename));
+    }
+
+    private UploadResultDTO uploadMultipart(MultipartFile file, String pathWithFilename) throws IOException {
+        long started = System.nanoTime();
+        List<BlockTimingDTO> timings = writeBlob(containerClient.getBlobClient(pathWithFilename), file, null);
+        listingCache.invalidatePath(pathWithFilename);
+        return new UploadResultDTO(pathWithFilename, file.getSize(), timings.size(), elapsedMillis(started), timings);
+    }
+
+    // ✅ Dedup upload: the request body is read once. Files up to one block are hashed and
+    // sent from the same in-memory copy, and content that is already stored is not sent again
+    // (only the pointer is written, and the report has no blocks). Larger files are hashed
+    // while their blocks are staged on a temporary blob; see uploadStaged.
+    private UploadResultDTO uploadDeduplicated(MultipartFile file, String pathWithFilename) throws IOException {
+        long started = System.nanoTime();
+        List<BlockTimingDTO> timings;
+        if (file.getSize() <= uploadBlockSize) {
+            byte[] data = file.getBytes();
+            timings = storeDeduplicated(pathWithFilename, sha256(new ByteArrayInputStream(data)), file.getSize(),
+                    content -> writeBlob(content, file, data));
+        } else {
+            timings = uploadStaged(file, pathWithFilename);
+        }
+        return new UploadResultDTO(pathWithFilename, file.getSize(), timings.size(), elapsedMillis(started), timings);
+    }
+
+    // Blocks can only be committed to the blob they were staged on, and the content key is not
+    // known until the last block is read. So the blocks go to a staging blob, which is then
+    // copied server-side to the content key, or just deleted when that content already exists.
+    private List<BlockTimingDTO> uploadStaged(MultipartFile file, String pathWithFilename) throws IOException {
+        BlobClient staging = containerClient.getBlobClient(contentPrefix + STAGING_FOLDER + UUID.randomUUID());
+        MessageDigest digest = sha256Digest();
+        try {
+            List<BlockTimingDTO> timings = uploadInBlocks(staging.getBlockBlobClient(), file, pathWithFilename, digest);
+            storageMetrics.recordBytes(BACKEND, "upload", file.getSize());
+            String hash = HexFormat.of().formatHex(digest.digest());
+            storeDeduplicated(pathWithFilename, hash, file.getSize(), content -> {
+                copyContent(staging, content);
+                return timings;
+            });
+            return timings;
+        } finally {
+            storageMetrics.call(BACKEND, "deleteStaging", staging::deleteIfExists);
+        }
+    }
+
+    // Copy Blob within the account: the shared key on the request also authorizes the source
+    private void copyContent(BlobClient source, BlobClient target) {
+        storageMetrics.run(BACKEND, "copyContent", () -> {
+            BlobCopyInfo copy = target.beginCopy(source.getBlobUrl(), Duration.ofSeconds(1)).waitForCompletion().getValue();
+            if (copy.getCopyStatus() != CopyStatusType.SUCCESS) {
+                throw new IllegalStateException("Copy to " + target.getBlobName() + " ended as " + copy.getCopyStatus());
+            }
+        });
+    }
+
+    // data, when given, is the file's content already read into memory
+    private List<BlockTimingDTO> writeBlob(BlobClient blobClient, MultipartFile file, byte[] data) throws IOException {
+        long size = file.getSize();
+        List<BlockTimingDTO> timings;
+        if (size <= uploadBlockSize) {
+            long started = System.nanoTime();
+            if (data != null) {
+                blobClient.upload(BinaryData.fromBytes(data), true);
+            } else {
+                try (InputStream in = file.getInputStream()) {
+                    blobClient.upload(in, size, true);
+                }
+            }
+            timings = List.of(new BlockTimingDTO(0, size, elapsedMillis(started)));
+        } else {
+            timings = uploadInBlocks(blobClient.getBlockBlobClient(), file, blobClient.getBlobName(), null);
+        }
+        storageMetrics.recordBytes(BACKEND, "upload", size);
+        return timings;
+    }
+
+    @FunctionalInterface
+    private interface ContentWriter {
+        List<BlockTimingDTO> write(BlobClient content) throws IOException;
+    }
+
+    // Takes a reference on the content, uploads it if no copy exists yet and points the
+    // path at it. The reference is taken first, so the sweep cannot delete the content
+    // between the existence check and the pointer write.
+    private List<BlockTimingDTO> storeDeduplicated(String path, String hash, long size, ContentWriter writer) throws IOException {
+        contentRefIndex.acquire(hash, size);
+        try {
+            BlobClient content = containerClient.getBlobClient(contentPrefix + hash);
+            List<BlockTimingDTO> timings = List.of();
+            if (storageMetrics.call(BACKEND, "contentExists", content::exists)) {
+                storageMetrics.recordBytes(BACKEND, "dedupSkipped", size);
+            } else {
+                timings = writer.write(content);
+            }
+            writePointer(path, hash, size);
+            listingCache.invalidatePath(path);
+            return timings;
+        } catch (IOException | RuntimeException e) {
+            contentRefIndex.release(hash);
+            throw e;
+        }
+    }
+
+    // Points the path at the content and releases whatever it pointed at before. The write
+    // is conditional on the previous pointer's ETag, so two uploads racing for the same path
+    // cannot both release the old content.
+    private void writePointer(String path, String hash, long size) {
+        BlockBlobClient pointer = containerClient.getBlobClient(path).getBlockBlobClient();
+        while (true) {
+            String previousHash = null;
+            BlobRequestConditions conditions;
+            try {
+                BlobProperties properties = pointer.getProperties();
+                previousHash = properties.getMetadata().get(META_CONTENT);
+                conditions = new BlobRequestConditions().setIfMatch(properties.getETag());
+            } catch (BlobStorageException e) {
+                if (e.getStatusCode() != 404) {
+                    throw e;
+                }
+                conditions = new BlobRequestConditions().setIfNoneMatch("*");
+            }
+
+            try {
+                pointer.uploadWithResponse(new BlockBlobSimpleUploadOptions(BinaryData.fromBytes(new byte[0]))
+                        .setMetadata(Map.of(META_CONTENT, hash, META_SIZE, Long.toString(size)))
+                        .setRequestConditions(conditions), null, Context.NONE);
+            } catch (BlobStorageException e) {
+                // Changed since we read it: read the new pointer and try again
+                if (e.getStatusCode() == 412 || e.getStatusCode() == 409) {
+                    continue;
+                }
+                throw e;
+            }
+
+            if (previousHash != null) {
+                contentRefIndex.release(previousHash);
+            }
+            return;
+        }
+    }
+
+    // Content hash a pointer names, or null for a regular blob
+    private String pointerHash(BlobProperties properties) {
+        return dedupEnabled ? properties.getMetadata().get(META_CONTENT) : null;
+    }
+
+    // Content hash behind an ETag handed out by getFileMetadata, or null
+    private static String contentHash(String eTag) {
+        return eTag != null && eTag.startsWith(CONTENT_ETAG_PREFIX)
+                ? eTag.substring(CONTENT_ETAG_PREFIX.length(), eTag.length() - 1)
+                : null;
+    }
+
+    private static String sha256(InputStream in) throws IOException {
+        MessageDigest digest = sha256Digest();
+        byte[] buffer = new byte[65536];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Deletes content that has had no references for orphanGraceMinutes
+    @Scheduled(fixedDelayString = "${storage.dedup.sweep-interval-ms:600000}")
+    public void sweepOrphanedContent() {
+        if (!dedupEnabled) {
+            return;
+        }
+        contentRefIndex.sweep(Duration.ofMinutes(orphanGraceMinutes), sweepBatchSize,
+                hash -> storageMetrics.call(BACKEND, "deleteContent",
+                        () -> containerClient.getBlobClient(contentPrefix + hash).deleteIfExists()));
+
+        // Staging blobs of uploads that died before cleaning up after themselves
+        OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(orphanGraceMinutes);
+        ListBlobsOptions staging = new ListBlobsOptions().setPrefix(contentPrefix + STAGING_FOLDER);
+        for (BlobItem item : containerClient.listBlobs(staging, null)) {
+            if (item.getProperties().getLastModified().isBefore(cutoff)) {
+                storageMetrics.call(BACKEND, "deleteStaging", () -> containerClient.getBlobClient(item.getName()).deleteIfExists());
+            }
+        }
+    }
+
+    // digest, when given, is updated with the body in order as the blocks are read
+    private List<BlockTimingDTO> uploadInBlocks(BlockBlobClient blockBlobClient, MultipartFile file,
+                                                String pathWithFilename, MessageDigest digest) throws IOException {
+        // Bounds buffered blocks per upload to uploadParallelism (+1 being read)
+        Semaphore inFlight = new Semaphore(uploadParallelism);
+        List<String> blockIds = new ArrayList<>();
+        List<Future<BlockTimingDTO>> pending = new ArrayList<>();
+
+        try (InputStream in = file.getInputStream()) {
+            byte[] block;
+            while ((block = in.readNBytes(uploadBlockSize)).length > 0) {
+                if (digest != null) {
+                    digest.update(block);
+                }
+                inFlight.acquire();
+                int index = blockIds.size();
+                String blockId = blockId(index);
+                byte[] data = block;
+                blockIds.add(blockId);
+                pending.add(uploadExecutor.submit(() -> {
+                    try {
+                        long started = System.nanoTime();
+                        storageMetrics.run(BACKEND, "stageBlock", () -> blockBlobClient.stageBlock(blockId, BinaryData.fromBytes(data)));
+                        return new BlockTimingDTO(index, data.length, elapsedMillis(started));
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+
+            List<BlockTimingDTO> timings = new ArrayList<>(pending.size());
+            for (Future<BlockTimingDTO> future : pending) {
+                timings.add(future.get());
+            }
+            storageMetrics.call(BACKEND, "commitBlocks", () -> blockBlobClient.commitBlockList(blockIds, true));
+            return timings;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.forEach(future -> future.cancel(true));
+            throw new IOException("Upload interrupted: " + pathWithFilename, e);
+        } catch (ExecutionException e) {
+            // Uncommitted blocks are discarded by the service, nothing to clean up
+            pending.forEach(future -> future.cancel(true));
+            throw new IOException("Block upload failed: " + pathWithFilename, e.getCause());
+        }
     }
 
-    // ✅ Download
-    public byte[] downloadFile(String pathWithFilename) throws IOException {
+    // Block IDs must all have the same length before Base64 encoding
+    private String blockId(int index) {
+        return Base64.getEncoder().encodeToString(String.format("%08d", index).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Resumable uploads stage straight onto the target blob; the upload ID in the block ID keeps
+    // sessions for the same path apart. Nothing is visible until commitBlocks.
+    @Override
+    public void stageBlock(String pathWithFilename, String uploadId, int index, long offset,
+                           byte[] data, int length) throws IOException {
+        BlockBlobClient blockBlobClient = containerClient.getBlobClient(pathWithFilename).getBlockBlobClient();
+        storageMetrics.run(BACKEND, "stageBlock", () -> blockBlobClient.stageBlock(
+                blockId(uploadId, index), new ByteArrayInputStream(data, 0, length), length));
+        storageMetrics.recordBytes(BACKEND, "stageBlock", length);
+    }
+
+    @Override
+    public void commitBlocks(String pathWithFilename, String uploadId, int blockCount, long size) throws IOException {
+        BlockBlobClient blockBlobClient = containerClient.getBlobClient(pathWithFilename).getBlockBlobClient();
+        List<String> blockIds = new ArrayList<>(blockCount);
+        for (int index = 0; index < blockCount; index++) {
+            blockIds.add(blockId(uploadId, index));
+        }
+
+        try {
+            storageMetrics.run(BACKEND, "commitBlocks", () -> {
+                if (dedupEnabled) {
+                    commitOverPointer(blockBlobClient, blockIds);
+                } else {
+                    blockBlobClient.commitBlockList(blockIds, true);
+                }
+            });
+        } catch (BlobStorageException e) {
+            // Another write to the same path committed first, which discards uncommitted blocks
+            if (e.getStatusCode() == 400) {
+                throw new IOException("Staged blocks are no longer available: " + pathWithFilename, e);
+            }
+            throw e;
+        }
+        listingCache.invalidatePath(pathWithFilename);
+    }
+
+    // Uncommitted blocks cannot be deleted; the service drops them after seven days or
+    // when the blob is next committed
+    @Override
+    public void abortBlocks(String pathWithFilename, String uploadId) {
+    }
+
+    // Resumable uploads are stored as plain blobs; one replacing a pointer releases its content
+    private void commitOverPointer(BlockBlobClient blockBlobClient, List<String> blockIds) {
+        while (true) {
+            BlobRequestConditions conditions = new BlobRequestConditions();
+            String previousHash = null;
+            try {
+                BlobProperties properties = blockBlobClient.getProperties();
+                previousHash = pointerHash(properties);
+                conditions.setIfMatch(properties.getETag());
+            } catch (BlobStorageException e) {
+                if (e.getStatusCode() != 404) {
+                    throw e;
+                }
+                conditions.setIfNoneMatch("*");
+            }
+
+            try {
+                blockBlobClient.commitBlockListWithResponse(
+                        new BlockBlobCommitBlockListOptions(blockIds).setRequestConditions(conditions), null, Context.NONE);
+            } catch (BlobStorageException e) {
+                // Changed since we read it: release whatever is there now
+                if (e.getStatusCode() == 409 || e.getStatusCode() == 412) {
+                    continue;
+                }
+                throw e;
+            }
+
+            if (previousHash != null) {
+                contentRefIndex.release(previousHash);
+            }
+            return;
+        }
+    }
+
+    // Same length for every block of a session: "<uploadId>-<index>"
+    private String blockId(String uploadId, int index) {
+        return Base64.getEncoder().encodeToString(String.format("%s-%08d", uploadId, index).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+
+    // ✅ Metadata only (size, ETag, content type) – no body is fetched
+    @Override
+    public FileMetadataDTO getFileMetadata(String pathWithFilename) {
+        BlobProperties properties;
+        try {
+            properties = storageMetrics.call(BACKEND, "getMetadata",
+                    () -> containerClient.getBlobClient(pathWithFilename).getProperties());
+        } catch (BlobStorageException e) {
+            throw notFoundOr(e, pathWithFilename);
+        }
+        String hash = pointerHash(properties);
+        if (hash != null) {
+            return new FileMetadataDTO(
+                    pathWithFilename,
+                    Long.parseLong(properties.getMetadata().get(META_SIZE)),
+                    CONTENT_ETAG_PREFIX + hash + "\"",
+                    properties.getContentType(),
+                    properties.getLastModified()
+            );
+        }
+        return new FileMetadataDTO(
+                pathWithFilename,
+                properties.getBlobSize(),
+                properties.getETag(),
+                properties.getContentType(),
+                properties.getLastModified()
+        );
+    }
+
+    // ✅ Streaming download: blob -> out through a fixed-size buffer, so heap use
+    // stays at one block + one buffer regardless of the blob size.
+    // eTag (optional) pins the read to the version the caller saw in getFileMetadata.
+    @Override
+    public void downloadFile(String pathWithFilename, String eTag, OutputStream out) throws IOException {
+        long bytes = storageMetrics.call(BACKEND, "download", () -> copyBlob(pathWithFilename, eTag, new BlobRange(0), out));
+        storageMetrics.recordBytes(BACKEND, "download", bytes);
+    }
+
+    // ✅ Ranged download: only bytes [offset, offset + count) are read from the blob
+    @Override
+    public void downloadFileRange(String pathWithFilename, String eTag, long offset, long count,
+                                  OutputStream out) throws IOException {
+        long bytes = storageMetrics.call(BACKEND, "downloadRange",
+                () -> copyBlob(pathWithFilename, eTag, new BlobRange(offset, count), out));
+        storageMetrics.recordBytes(BACKEND, "downloadRange", bytes);
+    }
+
+    // Returns the number of bytes copied
+    private long copyBlob(String pathWithFilename, String eTag, BlobRange range, OutputStream out) throws IOException {
+        try {
+            return copyBlobContent(pathWithFilename, eTag, range, out);
+        } catch (BlobStorageException e) {
+            throw notFoundOr(e, pathWithFilename);
+        }
+    }
+
+    private long copyBlobContent(String pathWithFilename, String eTag, BlobRange range, OutputStream out) throws IOException {
         BlobClient blobClient = containerClient.getBlobClient(pathWithFilename);
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        blobClient.download(outputStream);
-        return outputStream.toByteArray();
+        if (dedupEnabled) {
+            // Deduplicated files are read from their content blob, found through the ETag or the pointer
+            String hash = eTag != null ? contentHash(eTag) : pointerHash(blobClient.getProperties());
+            if (hash != null) {
+                blobClient = containerClient.getBlobClient(contentPrefix + hash);
+                eTag = null;
+            }
+        }
+        BlobInputStreamOptions options = new BlobInputStreamOptions()
+                .setRange(range)
+                .setBlockSize(downloadBlockSize)
+                .setRequestConditions(new BlobRequestConditions().setIfMatch(eTag));
+
+        try (InputStream in = blobClient.openInputStream(options)) {
+            byte[] buffer = new byte[downloadBufferSize];
+            long copied = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                copied += read;
+            }
+            return copied;
+        }
     }
 
-    // ✅ Delete
+    // A missing blob is a 404 for the caller, as it is on the local backend; anything else is rethrown
+    private static RuntimeException notFoundOr(BlobStorageException e, String pathWithFilename) {
+        if (e.getStatusCode() == 404 || BlobErrorCode.BLOB_NOT_FOUND.equals(e.getErrorCode())) {
+            return new NotFoundException("File not found: " + pathWithFilename);
+        }
+        return e;
+    }
+
+    // ✅ Delete (single round trip, no separate exists() check)
+    @Override
     public void deleteFile(String pathWithFilename) {
+        if (dedupEnabled) {
+            storageMetrics.run(BACKEND, "delete", () -> deletePointer(pathWithFilename));
+        } else {
+            storageMetrics.call(BACKEND, "delete", () -> containerClient.getBlobClient(pathWithFilename).deleteIfExists());
+        }
+        listingCache.invalidatePath(pathWithFilename);
+    }
+
+    // Deletes the pointer (conditional on the version read) and releases its content
+    private void deletePointer(String pathWithFilename) {
         BlobClient blobClient = containerClient.getBlobClient(pathWithFilename);
-        if (blobClient.exists()) {
-            blobClient.delete();
+        while (true) {
+            BlobProperties properties;
+            try {
+                properties = blobClient.getProperties();
+                blobClient.deleteWithResponse(DeleteSnapshotsOptionType.INCLUDE,
+                        new BlobRequestConditions().setIfMatch(properties.getETag()), null, Context.NONE);
+            } catch (BlobStorageException e) {
+                if (e.getStatusCode() == 404) {
+                    return;
+                }
+                // Overwritten since we read it: release whatever it points at now
+                if (e.getStatusCode() == 412) {
+                    continue;
+                }
+                throw e;
+            }
+
+            String hash = pointerHash(properties);
+            if (hash != null) {
+                contentRefIndex.release(hash);
+            }
+            return;
         }
     }
 
-    // ✅ List all files under a prefix (user folder or subfolder)
+    // ✅ List all files under a prefix (user folder or subfolder), served from the listing cache
+    @Override
     public List<FileInfoDTO> listUserFilesWithMetadata(String prefix) {
-        List<FileInfoDTO> result = new ArrayList<>();
+        return listingCache.get(prefix, "all", () -> storageMetrics.call(BACKEND, "list", () -> {
+            List<FileInfoDTO> result = new ArrayList<>();
 
-        // ✅ List blobs and folders using delimiter "/"
-        PagedIterable<BlobItem> blobs = containerClient.listBlobsByHierarchy(
-                "/", new ListBlobsOptions().setPrefix(prefix), null
-        );
+            // ✅ List blobs and folders using delimiter "/"
+            PagedIterable<BlobItem> blobs = containerClient.listBlobsByHierarchy(
+                    "/", listOptions(prefix), null
+            );
 
-        for (BlobItem blobItem : blobs) {
-            String fullName = blobItem.getName();
+            for (BlobItem blobItem : blobs) {
+                FileInfoDTO dto = toFileInfo(blobItem, prefix);
+                if (dto != null) {
+                    result.add(dto);
+                }
+            }
+            return new FilePageDTO(result, null);
+        })).getItems();
+    }
 
-            // ✅ Skip empty names (happens with root folder sometimes)
-            if (fullName.equals(prefix)) continue;
+    // ✅ One page of a folder listing; pass the returned continuation token to get the next page
+    @Override
+    public FilePageDTO listUserFilesPage(String prefix, String continuationToken, int pageSize) {
+        String pageKey = pageSize + "|" + (continuationToken != null ? continuationToken : "");
+        return listingCache.get(prefix, pageKey, () -> storageMetrics.call(BACKEND, "listPage", () -> {
+            ListBlobsOptions options = listOptions(prefix).setMaxResultsPerPage(pageSize);
+            Iterator<PagedResponse<BlobItem>> pages = containerClient.listBlobsByHierarchy("/", options, null)
+                    .iterableByPage(continuationToken, pageSize)
+                    .iterator();
+            if (!pages.hasNext()) {
+                return new FilePageDTO(List.of(), null);
+            }
 
-            boolean isFolder = fullName.endsWith("/");
-            String relativeName = fullName.substring(prefix.length());
+            PagedResponse<BlobItem> page = pages.next();
+            List<FileInfoDTO> result = new ArrayList<>(page.getValue().size());
+            for (BlobItem blobItem : page.getValue()) {
+                FileInfoDTO dto = toFileInfo(blobItem, prefix);
+                if (dto != null) {
+                    result.add(dto);
+                }
+            }
+            return new FilePageDTO(result, page.getContinuationToken());
+        }));
+    }
 
-            // ✅ Ignore nested folders if you only want immediate children
-            if (relativeName.contains("/") && !isFolder) continue;
+    // Pointer sizes live in their metadata, so dedup listings fetch it
+    private ListBlobsOptions listOptions(String prefix) {
+        ListBlobsOptions options = new ListBlobsOptions().setPrefix(prefix);
+        return dedupEnabled ? options.setDetails(new BlobListDetails().setRetrieveMetadata(true)) : options;
+    }
 
-            FileInfoDTO dto = new FileInfoDTO();
-            dto.setName(relativeName);
-            dto.setType(isFolder ? "folder" : getExtension(fullName));
-            dto.setSize(isFolder ? 0 : blobItem.getProperties().getContentLength());
-            dto.setLastModified(isFolder ? null : blobItem.getProperties().getLastModified());
-            dto.setFolder(isFolder);
+    private long blobSize(BlobItem blobItem) {
+        String pointerSize = blobItem.getMetadata() != null ? blobItem.getMetadata().get(META_SIZE) : null;
+        return pointerSize != null ? Long.parseLong(pointerSize) : blobItem.getProperties().getContentLength();
+    }
 
-            result.add(dto);
-        }
+    // Returns null for entries that are not immediate children of the prefix
+    private FileInfoDTO toFileInfo(BlobItem blobItem, String prefix) {
+        String fullName = blobItem.getName();
 
-        return result;
-    }
+        // ✅ Skip empty names (happens with root folder sometimes)
+        if (fullName.equals(prefix)) return null;
 
+        boolean isFolder = fullName.endsWith("/");
+        String relativeName = fullName.substring(prefix.length());
 
+        // ✅ Ignore nested folders if you only want immediate children
+        if (relativeName.contains("/") && !isFolder) return null;
+
+        FileInfoDTO dto = new FileInfoDTO();
+        dto.setName(relativeName);
+        dto.setType(isFolder ? "folder" : getExtension(fullName));
+        dto.setSize(isFolder ? 0 : blobSize(blobItem));
+        dto.setLastModified(isFolder ? null : blobItem.getProperties().getLastModified());
+        dto.setFolder(isFolder);
+        return dto;
+    }
 
     private String getExtension(String name) {
         int lastDot = name.lastIndexOf('.');
@@ -104,28 +709,132 @@ public class AzureStorageService {
                 : "unknown";
     }
 
+    @Override
     public void uploadFileFromText(String path, String content) {
+        upload(path, BinaryData.fromString(content));
+    }
+
+    @Override
+    public void uploadFileFromBytes(String path, byte[] content) {
+        upload(path, BinaryData.fromBytes(content));
+    }
+
+    private void upload(String path, BinaryData content) {
+        if (dedupEnabled) {
+            byte[] data = content.toBytes();
+            try {
+                storageMetrics.run(BACKEND, "upload", () -> storeDeduplicated(path, sha256(new ByteArrayInputStream(data)), data.length,
+                        target -> {
+                            target.upload(BinaryData.fromBytes(data), true);
+                            storageMetrics.recordBytes(BACKEND, "upload", data.length);
+                            return List.of();
+                        }));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write " + path, e);
+            }
+            return;
+        }
+
         BlockBlobClient blobClient = containerClient.getBlobClient(path).getBlockBlobClient();
-        blobClient.upload(BinaryData.fromString(content), true);
+        storageMetrics.run(BACKEND, "upload", () -> blobClient.upload(content, true));
+        storageMetrics.recordBytes(BACKEND, "upload", content.getLength() != null ? content.getLength() : 0);
+        listingCache.invalidatePath(path);
     }
 
-    public void deleteFolder(String folderPrefix) {
+    // ✅ Delete a folder: blobs are listed a page at a time and every page is removed
+    // with a single batch request, with at most deleteParallelism batches in flight.
+    @Override
+    public void deleteFolder(String folderPrefix, DeleteProgress progress) {
         // Ensure folder prefix ends with "/"
-        if (!folderPrefix.endsWith("/")) {
-            folderPrefix += "/";
-        }
+        String prefix = folderPrefix.endsWith("/") ? folderPrefix : folderPrefix + "/";
+        storageMetrics.run(BACKEND, "deleteFolder", () -> deleteFolderBatched(prefix, progress));
+    }
+
+    private void deleteFolderBatched(String folderPrefix, DeleteProgress progress) {
+        ListBlobsOptions options = listOptions(folderPrefix).setMaxResultsPerPage(MAX_BATCH_SIZE);
+        Semaphore inFlight = new Semaphore(deleteParallelism);
+        List<Future<?>> pending = new ArrayList<>();
 
-        // Get all blobs under the folderPrefix recursively
-        PagedIterable<BlobItem> blobs = containerClient.listBlobs(new ListBlobsOptions().setPrefix(folderPrefix), null);
+        try {
+            for (PagedResponse<BlobItem> page : containerClient.listBlobs(options, null).iterableByPage(MAX_BATCH_SIZE)) {
+                List<BlobItem> items = page.getValue();
+                if (items.isEmpty()) continue;
 
-        for (BlobItem blobItem : blobs) {
-            BlobClient blobClient = containerClient.getBlobClient(blobItem.getName());
-            if (blobClient.exists()) {
-                blobClient.delete();
+                progress.listed(items.size());
+                inFlight.acquire();
+                pending.add(deleteExecutor.submit(() -> {
+                    try {
+                        deleteBatch(items, progress);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (Future<?> future : pending) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Folder delete interrupted: " + folderPrefix, e);
+        } catch (ExecutionException e) {
+            pending.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Folder delete failed: " + folderPrefix, e.getCause());
+        } finally {
+            listingCache.invalidateFolder(folderPrefix);
         }
     }
 
+    // One round trip for up to MAX_BATCH_SIZE blobs; a blob that is already gone counts as deleted.
+    // With dedup, each delete is conditional on the ETag seen when listing, so only the
+    // pointer whose hash was listed is released. A blob overwritten since then (412) goes
+    // through deletePointer, which re-reads it and releases what it points at now.
+    private void deleteBatch(List<BlobItem> items, DeleteProgress progress) {
+        BlobBatch batch = batchClient.getBlobBatch();
+        List<String> names = new ArrayList<>(items.size());
+        List<String> hashes = new ArrayList<>(items.size());
+        List<Response<Void>> responses = new ArrayList<>(items.size());
+        for (BlobItem item : items) {
+            BlobRequestConditions conditions = null;
+            String hash = null;
+            if (dedupEnabled) {
+                conditions = new BlobRequestConditions().setIfMatch(item.getProperties().getETag());
+                hash = item.getMetadata() != null ? item.getMetadata().get(META_CONTENT) : null;
+            }
+            names.add(item.getName());
+            hashes.add(hash);
+            responses.add(batch.deleteBlob(containerName, item.getName(), DeleteSnapshotsOptionType.INCLUDE, conditions));
+        }
 
+        try {
+            storageMetrics.call(BACKEND, "deleteBatch", () -> batchClient.submitBatchWithResponse(batch, false, null, Context.NONE));
+        } catch (RuntimeException e) {
+            names.forEach(name -> progress.failed(name, e.getMessage()));
+            return;
+        }
 
+        int deleted = 0;
+        for (int i = 0; i < names.size(); i++) {
+            try {
+                int status = responses.get(i).getStatusCode();
+                if (status < 300 || status == 404) {
+                    deleted++;
+                    // A 404 means someone else deleted the pointer and released its content
+                    String hash = hashes.get(i);
+                    if (status < 300 && hash != null) {
+                        contentRefIndex.release(hash);
+                    }
+                } else if (status == 412) {
+                    String name = names.get(i);
+                    storageMetrics.run(BACKEND, "delete", () -> deletePointer(name));
+                    deleted++;
+                } else {
+                    progress.failed(names.get(i), "HTTP " + status);
+                }
+            } catch (RuntimeException e) {
+                progress.failed(names.get(i), e.getMessage());
+            }
+        }
+        progress.deleted(deleted);
+    }
 }
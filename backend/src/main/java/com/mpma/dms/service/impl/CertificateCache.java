@@ -0,0 +1,178 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.entity.Student;
+import com.mpma.dms.service.StorageBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Content-addressed cache of rendered certificates. The key is a hash of the template
+// plus the student fields the certificate prints, so a template or name change can
+// never serve a stale PDF. Tier 1 is an in-memory LRU bounded by bytes; tier 2
+// (optional) keeps PDFs in the storage backend so they survive restarts and are
+// shared between nodes. Spills are written by one background thread through a bounded
+// queue; when storage is slow and the queue is full, the spill is skipped
+// (dms.certificate.spill.dropped) rather than holding more PDFs in memory.
+@Component
+@RequiredArgsConstructor
+public class CertificateCache {
+
+    private final CertificateRenderer certificateRenderer;
+    private final StorageBackend storageService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${certificate.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${certificate.cache.spill-enabled:false}")
+    private boolean spillEnabled;
+
+    @Value("${certificate.cache.spill-prefix:_certificate-cache/}")
+    private String spillPrefix;
+
+    // Pending spill writes and deletes; each queued write holds its PDF
+    @Value("${certificate.cache.spill-queue-capacity:64}")
+    private int spillQueueCapacity;
+
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long cachedBytes;
+
+    private ThreadPoolExecutor spillExecutor;
+
+    @FunctionalInterface
+    public interface PdfLoader {
+        byte[] load() throws IOException;
+    }
+
+    @PostConstruct
+    public void init() {
+        spillExecutor = new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(spillQueueCapacity),
+                new CustomizableThreadFactory("certificate-spill-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        spillExecutor.shutdown();
+    }
+
+    public byte[] get(Student student, PdfLoader loader) throws IOException {
+        String key = key(student);
+
+        byte[] pdf = getFromMemory(key);
+        if (pdf != null) {
+            return pdf;
+        }
+
+        if (spillEnabled) {
+            pdf = readSpilled(key);
+            if (pdf != null) {
+                putInMemory(key, pdf);
+                return pdf;
+            }
+        }
+
+        pdf = loader.load();
+        if (pdf != null && pdf.length > 0) {
+            putInMemory(key, pdf);
+            if (spillEnabled) {
+                byte[] spilled = pdf;
+                spill("write", () -> storageService.uploadFileFromBytes(spillPath(key), spilled));
+            }
+        }
+        return pdf;
+    }
+
+    // Call with the student's values *before* they change
+    public void evict(Student student) {
+        String key = key(student);
+        synchronized (this) {
+            byte[] removed = entries.remove(key);
+            if (removed != null) {
+                cachedBytes -= removed.length;
+            }
+        }
+        if (spillEnabled) {
+            // A skipped delete leaves an orphan, never a stale hit: the key changes with the student
+            spill("delete", () -> storageService.deleteFile(spillPath(key)));
+        }
+    }
+
+    private void spill(String operation, Runnable task) {
+        try {
+            spillExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("dms.certificate.spill.dropped", "operation", operation).increment();
+        }
+    }
+
+    private synchronized byte[] getFromMemory(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void putInMemory(String key, byte[] pdf) {
+        if (pdf.length > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(key, pdf);
+        cachedBytes += pdf.length - (previous != null ? previous.length : 0);
+
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (cachedBytes > maxBytes && eldest.hasNext()) {
+            cachedBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    // A missing or unreadable spilled copy is just a miss
+    private byte[] readSpilled(String key) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            storageService.downloadFile(spillPath(key), null, out);
+            return out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private String spillPath(String key) {
+        return spillPrefix + key + ".pdf";
+    }
+
+    private String key(Student student) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(certificateRenderer.getTemplateHash().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Objects.toString(student.getFullName(), "").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Objects.toString(student.getNic(), "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.CertificateJobDTO;
+import com.mpma.dms.entity.Student;
+import com.mpma.dms.enums.JobStatus;
+import com.openhtmltopdf.extend.impl.FSDefaultCacheStore;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+// Certificate rendering engine: the HTML template is parsed into a DOM once and
+// cloned per certificate, font metrics are cached across renders, and all
+// rendering runs on a bounded pool whose full queue rejects new work.
+@Component
+@RequiredArgsConstructor
+public class CertificateRenderer {
+
+    private final MeterRegistry meterRegistry;
+
+    private static final String TEMPLATE_PATH = "static/index.html";
+
+    // 0 = one render thread per CPU
+    @Value("${certificate.render.threads:0}")
+    private int renderThreads;
+
+    @Value("${certificate.render.queue-capacity:200}")
+    private int queueCapacity;
+
+    // Upper bound for a synchronous render, including time spent queued
+    @Value("${certificate.render.timeout-seconds:60}")
+    private long renderTimeoutSeconds;
+
+    // Finished async jobs (and their PDFs) stay available for this long
+    @Value("${certificate.jobs.retention-minutes:10}")
+    private long jobRetentionMinutes;
+
+    private final FSDefaultCacheStore fontMetricsCache = new FSDefaultCacheStore();
+
+    private final Map<String, CertificateJob> jobs = new ConcurrentHashMap<>();
+
+    private Document template;
+
+    private String templateHash;
+
+    private ThreadPoolExecutor renderExecutor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        template = parseTemplate();
+
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        renderExecutor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("certificate-render-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        // executor.* gauges (queued, active, completed) tagged name=certificate-render
+        new ExecutorServiceMetrics(renderExecutor, "certificate-render", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdownNow();
+    }
+
+    // Synchronous render that still goes through the bounded pool,
+    // so request threads cannot exceed the render concurrency limit
+    public byte[] render(Student student) throws IOException {
+        Future<byte[]> result = renderExecutor.submit(() -> renderPdf(student));
+        try {
+            return result.get(renderTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new IOException("Certificate rendering interrupted", e);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new IOException("Certificate rendering timed out", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Certificate rendering failed", e.getCause());
+        }
+    }
+
+    // Throws RejectedExecutionException when the render queue is full
+    public CertificateJobDTO submit(Student student) {
+        evictExpiredJobs();
+
+        CertificateJob job = new CertificateJob(UUID.randomUUID().toString(), student.getId());
+        jobs.put(job.jobId, job);
+        try {
+            renderExecutor.execute(() -> runJob(job, student));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.jobId);
+            throw e;
+        }
+        return job.toDTO();
+    }
+
+    // SHA-256 of the raw template; part of every certificate cache key
+    public String getTemplateHash() {
+        return templateHash;
+    }
+
+    public Optional<CertificateJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(CertificateJob::toDTO);
+    }
+
+    public Optional<byte[]> getPdf(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(job -> job.pdf);
+    }
+
+    // Renders every student on the pool with at most maxInFlight renders outstanding and
+    // hands each result to the sink on the calling thread, in completion order. Only the
+    // in-flight PDFs are ever held in memory.
+    public void renderEach(Iterator<Student> students, int maxInFlight, CertificateSink sink) throws IOException {
+        CompletionService<RenderedCertificate> completion = new ExecutorCompletionService<>(renderExecutor);
+        int inFlight = 0;
+        Student next = null;
+
+        try {
+            while (next != null || students.hasNext() || inFlight > 0) {
+                while (inFlight < maxInFlight && (next != null || students.hasNext())) {
+                    Student student = next != null ? next : students.next();
+                    try {
+                        completion.submit(() -> renderQuietly(student));
+                        next = null;
+                        inFlight++;
+                    } catch (RejectedExecutionException e) {
+                        // Pool queue is full (other callers); retry once something completes
+                        next = student;
+                        break;
+                    }
+                }
+
+                if (inFlight == 0) {
+                    Thread.sleep(50);
+                    continue;
+                }
+
+                RenderedCertificate rendered = completion.take().get();
+                inFlight--;
+                sink.accept(rendered.student(), rendered.pdf(), rendered.error());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bulk certificate rendering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Bulk certificate rendering failed", e.getCause());
+        }
+    }
+
+    private RenderedCertificate renderQuietly(Student student) {
+        try {
+            return new RenderedCertificate(student, renderPdf(student), null);
+        } catch (Exception e) {
+            return new RenderedCertificate(student, null, e);
+        }
+    }
+
+    // dms.certificate.render{outcome} times the render itself, not the time spent queued
+    byte[] renderPdf(Student student) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024);
+
+            PdfRendererBuilder builder = new PdfRendererBuilder();
+            builder.useFastMode();
+            builder.useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, fontMetricsCache);
+            builder.withW3cDocument(fillTemplate(student), null);
+            builder.toStream(outputStream);
+            builder.run();
+
+            outcome = "success";
+            return outputStream.toByteArray();
+        } finally {
+            sample.stop(Timer.builder("dms.certificate.render")
+                    .description("Certificate PDF render time")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private void runJob(CertificateJob job, Student student) {
+        job.status = JobStatus.RUNNING;
+        long started = System.nanoTime();
+        try {
+            job.pdf = renderPdf(student);
+            job.status = JobStatus.COMPLETED;
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.renderMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            job.finishedAt = OffsetDateTime.now();
+        }
+    }
+
+    private Document fillTemplate(Student student) {
+        Document document;
+        // DOM implementations are not safe for concurrent reads, so cloning is serialized
+        synchronized (template) {
+            document = (Document) template.cloneNode(true);
+        }
+        replacePlaceholders(document.getDocumentElement(), Map.of(
+                "[FULLNAME]", Objects.toString(student.getFullName(), ""),
+                "[NIC]", Objects.toString(student.getNic(), "")
+        ));
+        return document;
+    }
+
+    private void replacePlaceholders(Node node, Map<String, String> values) {
+        if (node.getNodeType() == Node.TEXT_NODE) {
+            String text = node.getNodeValue();
+            if (text.indexOf('[') != -1) {
+                for (Map.Entry<String, String> value : values.entrySet()) {
+                    text = text.replace(value.getKey(), value.getValue());
+                }
+                node.setNodeValue(text);
+            }
+            return;
+        }
+
+        NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            replacePlaceholders(children.item(i), values);
+        }
+    }
+
+    private Document parseTemplate() throws IOException {
+        try (InputStream inputStream = CertificateRenderer.class.getClassLoader().getResourceAsStream(TEMPLATE_PATH)) {
+            if (inputStream == null) {
+                throw new IOException("File not found in resources/" + TEMPLATE_PATH);
+            }
+
+            byte[] templateBytes = inputStream.readAllBytes();
+            templateHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(templateBytes));
+
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(new ByteArrayInputStream(templateBytes));
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to parse certificate template " + TEMPLATE_PATH, e);
+        }
+    }
+
+    private void evictExpiredJobs() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(Duration.ofMinutes(jobRetentionMinutes));
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @FunctionalInterface
+    public interface CertificateSink {
+        // Exactly one of pdf / error is non-null
+        void accept(Student student, byte[] pdf, Exception error) throws IOException;
+    }
+
+    private record RenderedCertificate(Student student, byte[] pdf, Exception error) {
+    }
+
+    private static final class CertificateJob {
+        private final String jobId;
+        private final Long studentId;
+        private final OffsetDateTime submittedAt = OffsetDateTime.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile byte[] pdf;
+        private volatile String error;
+        private volatile Long renderMillis;
+        private volatile OffsetDateTime finishedAt;
+
+        private CertificateJob(String jobId, Long studentId) {
+            this.jobId = jobId;
+            this.studentId = studentId;
+        }
+
+        private CertificateJobDTO toDTO() {
+            return CertificateJobDTO.builder()
+                    .jobId(jobId)
+                    .studentId(studentId)
+                    .status(status)
+                    .renderMillis(renderMillis)
+                    .error(error)
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.repository.ContentBlobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Reference counts behind deduplicated storage. Callers acquire before a user path
+// points at the content and release after the pointer is gone, so a crash can only
+// leave a count too high (a leaked blob), never too low (a dangling pointer).
+@Component
+@RequiredArgsConstructor
+public class ContentRefIndex {
+
+    private final ContentBlobRepository contentBlobRepository;
+
+    public void acquire(String hash, long size) {
+        contentBlobRepository.acquire(hash, size);
+    }
+
+    public void release(String hash) {
+        contentBlobRepository.release(hash, OffsetDateTime.now());
+    }
+
+    // Deletes up to `limit` contents that have been unreferenced for longer than grace.
+    // deleteBlob runs while the row is locked, so an upload that re-acquires the same
+    // content waits for the sweep to commit and then finds the blob missing and re-uploads it.
+    @Transactional
+    public int sweep(Duration grace, int limit, Consumer<String> deleteBlob) {
+        List<String> orphans = contentBlobRepository.lockOrphans(OffsetDateTime.now().minus(grace), limit);
+        for (String hash : orphans) {
+            deleteBlob.accept(hash);
+        }
+        contentBlobRepository.deleteAllByIdInBatch(orphans);
+        return orphans.size();
+    }
+}
@@ -2,12 +2,15 @@ package com.mpma.dms.service.impl;
 
 
 
+import com.mpma.dms.dto.CursorPageDTO;
 import com.mpma.dms.dto.DocumentDTO;
 import com.mpma.dms.entity.Document;
 import com.mpma.dms.repository.DocumentRepository;
+import com.mpma.dms.repository.KeysetCursor;
 import com.mpma.dms.service.DocumentService;
+import com.mpma.dms.mapper.DocumentMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,6 +22,9 @@ public class DocumentServiceImpl implements DocumentService {
 
     private final DocumentRepository documentRepository;
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String ID_SORT = KeysetCursor.sortKey("id", "asc");
+
     @Override
     public DocumentDTO createDocument(DocumentDTO documentDTO) {
         Document document = Document.builder()
@@ -28,24 +34,50 @@ public class DocumentServiceImpl implements DocumentService {
                 .documentUrl(documentDTO.getDocumentUrl())
                 .build();
         Document saved = documentRepository.save(document);
-        return mapToDTO(saved);
+        return DocumentMapper.toDTO(saved);
     }
 
     @Override
     public DocumentDTO getDocumentById(Long id) {
         Document document = documentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Document not found with ID: " + id));
-        return mapToDTO(document);
+        return DocumentMapper.toDTO(document);
     }
 
     @Override
     public List<DocumentDTO> getDocumentsByStudentId(String studentId) {
         List<Document> documents = documentRepository.findByStudentId(studentId);
         return documents.stream()
-                .map(this::mapToDTO)
+                .map(DocumentMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public CursorPageDTO<DocumentDTO> getDocumentsPage(String studentId, String documentType, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decode(cursor, ID_SORT);
+        long afterId = after != null ? after.id() : 0L;
+        // One extra row tells us whether there is a next page
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+
+        List<Document> rows = documentType != null
+                ? documentRepository.findByStudentIdAndDocumentTypeAndIdGreaterThanOrderByIdAsc(studentId, documentType, afterId, page)
+                : documentRepository.findByStudentIdAndIdGreaterThanOrderByIdAsc(studentId, afterId, page);
+
+        if (rows.size() <= pageSize) {
+            return new CursorPageDTO<>(rows.stream().map(DocumentMapper::toDTO).toList(), null);
+        }
+        List<DocumentDTO> items = rows.subList(0, pageSize).stream().map(DocumentMapper::toDTO).toList();
+        return new CursorPageDTO<>(items, new KeysetCursor(ID_SORT, null, items.get(pageSize - 1).getId()).encode());
+    }
+
+    @Override
+    public long countDocuments(String studentId, String documentType) {
+        return documentType != null
+                ? documentRepository.countByStudentIdAndDocumentType(studentId, documentType)
+                : documentRepository.countByStudentId(studentId);
+    }
+
     @Override
     public DocumentDTO updateDocument(Long id, DocumentDTO documentDTO) {
         Document document = documentRepository.findById(id)
@@ -56,7 +88,7 @@ public class DocumentServiceImpl implements DocumentService {
         document.setDocumentUrl(documentDTO.getDocumentUrl());
 
         Document updated = documentRepository.save(document);
-        return mapToDTO(updated);
+        return DocumentMapper.toDTO(updated);
     }
 
     @Override
@@ -66,10 +98,4 @@ public class DocumentServiceImpl implements DocumentService {
         }
         documentRepository.deleteById(id);
     }
-
-    private DocumentDTO mapToDTO(Document document) {
-        DocumentDTO dto = new DocumentDTO();
-        BeanUtils.copyProperties(document, dto);
-        return dto;
-    }
 }
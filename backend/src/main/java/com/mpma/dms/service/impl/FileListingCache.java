@@ -0,0 +1,189 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.FileInfoDTO;
+import com.mpma.dms.dto.FilePageDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Per-prefix cache of folder listings used by the storage backends.
+// Entries expire after a TTL; the cache is bounded by the total number of cached
+// items and evicts least recently used prefixes first. Each prefix is bounded too
+// (maxItemsPerPrefix), so one huge folder or one folder paged many ways cannot push
+// everything else out. Backends invalidate the affected prefixes on every upload and delete.
+@Component
+public class FileListingCache {
+
+    @Value("${storage.listing-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${storage.listing-cache.max-items:200000}")
+    private long maxItems;
+
+    // Listings larger than this are not cached; pages of one prefix are evicted LRU beyond it
+    @Value("${storage.listing-cache.max-items-per-prefix:50000}")
+    private long maxItemsPerPrefix;
+
+    // prefix -> its cached pages, in access order for LRU eviction
+    private final LinkedHashMap<String, PrefixPages> pagesByPrefix = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long cachedItems;
+
+    // Bumped on every invalidation so a load that raced with a write is not cached
+    private long generation;
+
+    public FilePageDTO get(String prefix, String pageKey, Supplier<FilePageDTO> loader) {
+        FilePageDTO cached = lookup(prefix, pageKey);
+        if (cached != null) {
+            return copy(cached, 0, cached.getItems().size());
+        }
+        long loadGeneration = generation();
+        FilePageDTO page = loader.get();
+        store(prefix, pageKey, page, loadGeneration);
+        return page;
+    }
+
+    // One page of the name-ordered listing cached under "all" (loaded on a miss); the continuation
+    // token is the last name returned. Only the page is copied, so walking a folder page by page
+    // stays linear. Returns null when the loader returns null, i.e. the folder is too large to cache.
+    public FilePageDTO getSlice(String prefix, Supplier<FilePageDTO> loader, String continuationToken, int pageSize) {
+        FilePageDTO all = lookup(prefix, "all");
+        if (all == null) {
+            long loadGeneration = generation();
+            all = loader.get();
+            if (all == null) {
+                return null;
+            }
+            store(prefix, "all", all, loadGeneration);
+        }
+
+        List<FileInfoDTO> items = all.getItems();
+        int from = continuationToken != null ? firstAfter(items, continuationToken) : 0;
+        int to = (int) Math.min((long) from + pageSize, items.size());
+        return new FilePageDTO(copy(all, from, to).getItems(), to < items.size() ? items.get(to - 1).getName() : null);
+    }
+
+    // Whether a listing of this many items would be cached at all
+    public boolean canHold(long items) {
+        return items <= maxItemsPerPrefix && items <= maxItems;
+    }
+
+    // Index of the first item whose name sorts after name; items are in name order
+    private static int firstAfter(List<FileInfoDTO> items, String name) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (items.get(mid).getName().compareTo(name) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // The cached page itself; it is never modified, so callers copy it outside the lock
+    private synchronized FilePageDTO lookup(String prefix, String pageKey) {
+        PrefixPages prefixPages = pagesByPrefix.get(prefix);
+        CachedPage cached = prefixPages != null ? prefixPages.pages.get(pageKey) : null;
+        return cached != null && cached.expiresAt > System.currentTimeMillis() ? cached.page : null;
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private void store(String prefix, String pageKey, FilePageDTO page, long loadGeneration) {
+        int size = page.getItems().size();
+        if (!canHold(size)) {
+            return;
+        }
+        // Copied before it is cached: the loaded DTOs go back to the caller
+        FilePageDTO copy = copy(page, 0, size);
+
+        synchronized (this) {
+            if (loadGeneration != generation) {
+                return;
+            }
+            PrefixPages prefixPages = pagesByPrefix.computeIfAbsent(prefix, key -> new PrefixPages());
+            CachedPage previous = prefixPages.pages.put(pageKey, new CachedPage(copy, System.currentTimeMillis() + ttlSeconds * 1000));
+            long added = size - (previous != null ? previous.page.getItems().size() : 0);
+            prefixPages.items += added;
+            cachedItems += added;
+
+            // Least recently used pages of this prefix first; the new page is the most recent
+            Iterator<CachedPage> pages = prefixPages.pages.values().iterator();
+            while (prefixPages.items > maxItemsPerPrefix && pages.hasNext()) {
+                long evicted = pages.next().page.getItems().size();
+                prefixPages.items -= evicted;
+                cachedItems -= evicted;
+                pages.remove();
+            }
+            evict();
+        }
+    }
+
+    // Callers get their own DTOs; the cached ones are never handed out and cannot be modified
+    private static FilePageDTO copy(FilePageDTO page, int from, int to) {
+        List<FileInfoDTO> items = new ArrayList<>(to - from);
+        for (FileInfoDTO item : page.getItems().subList(from, to)) {
+            items.add(new FileInfoDTO(item.getName(), item.getSize(), item.getType(), item.getLastModified(), item.isFolder()));
+        }
+        return new FilePageDTO(items, page.getContinuationToken());
+    }
+
+    // A change to "u/a/b/c.txt" can alter the listings of "u/", "u/a/" and "u/a/b/"
+    public synchronized void invalidatePath(String path) {
+        generation++;
+        int slash = path.indexOf('/');
+        while (slash != -1) {
+            remove(path.substring(0, slash + 1));
+            slash = path.indexOf('/', slash + 1);
+        }
+    }
+
+    // Drops the folder's ancestors and every listing underneath it
+    public synchronized void invalidateFolder(String folderPrefix) {
+        String folder = folderPrefix.endsWith("/") ? folderPrefix : folderPrefix + "/";
+        invalidatePath(folder);
+        Iterator<Map.Entry<String, PrefixPages>> it = pagesByPrefix.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, PrefixPages> entry = it.next();
+            if (entry.getKey().startsWith(folder)) {
+                cachedItems -= entry.getValue().items;
+                it.remove();
+            }
+        }
+    }
+
+    private void remove(String prefix) {
+        PrefixPages prefixPages = pagesByPrefix.remove(prefix);
+        if (prefixPages != null) {
+            cachedItems -= prefixPages.items;
+        }
+    }
+
+    private void evict() {
+        Iterator<PrefixPages> it = pagesByPrefix.values().iterator();
+        while (cachedItems > maxItems && it.hasNext()) {
+            cachedItems -= it.next().items;
+            it.remove();
+        }
+    }
+
+    private static final class PrefixPages {
+        // page key -> page, in access order
+        final LinkedHashMap<String, CachedPage> pages = new LinkedHashMap<>(4, 0.75f, true);
+        long items;
+    }
+
+    private record CachedPage(FilePageDTO page, long expiresAt) {
+    }
+}
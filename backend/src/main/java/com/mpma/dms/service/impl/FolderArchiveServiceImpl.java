@@ -0,0 +1,296 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.config.ExecutionMode;
+import com.mpma.dms.dto.FileInfoDTO;
+import com.mpma.dms.dto.FileMetadataDTO;
+import com.mpma.dms.dto.FilePageDTO;
+import com.mpma.dms.service.FolderArchiveService;
+import com.mpma.dms.service.StorageBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Streams a folder tree as a ZIP straight into the response. The tree is walked page by
+// page, and up to prefetchCount of the next files are downloaded in the background while
+// the current one is compressed. Only files up to prefetchMaxFileBytes are buffered that
+// way; larger ones are streamed from storage into the archive when their turn comes, so
+// memory per archive stays below prefetchCount * prefetchMaxFileBytes and nothing touches disk.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FolderArchiveServiceImpl implements FolderArchiveService {
+
+    // Already compressed: stored as-is instead of deflated again
+    private static final Set<String> COMPRESSED_TYPES = Set.of(
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "rar",
+            "jpg", "jpeg", "png", "gif", "webp", "heic",
+            "mp3", "m4a", "aac", "ogg", "mp4", "mov", "avi", "mkv", "webm",
+            "docx", "xlsx", "pptx", "odt", "ods", "odp",
+            "pdf" // page content is Flate-compressed already
+    );
+
+    // Listed at the end of the archive when some files could not be read
+    private static final String ERRORS_ENTRY = "_download-errors.txt";
+
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    private final StorageBackend storageService;
+    private final ExecutionMode executionMode;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${download.zip.max-concurrent:4}")
+    private int maxConcurrent;
+
+    // Files downloaded ahead of the one being compressed
+    @Value("${download.zip.prefetch-count:4}")
+    private int prefetchCount;
+
+    @Value("${download.zip.prefetch-max-file-bytes:4194304}")
+    private long prefetchMaxFileBytes;
+
+    // Prefetch workers shared by all archives (platform-thread mode only)
+    @Value("${download.zip.prefetch-threads:8}")
+    private int prefetchThreads;
+
+    // How long a writer that lost the race for the last slot waits for one to free up
+    @Value("${download.zip.slot-wait-seconds:30}")
+    private long slotWaitSeconds;
+
+    private Semaphore slots;
+
+    private ExecutorService prefetchExecutor;
+
+    @PostConstruct
+    public void init() {
+        slots = new Semaphore(maxConcurrent);
+        prefetchExecutor = executionMode.newBlockingExecutor("zip-prefetch-", prefetchThreads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    @Override
+    public ArchiveWriter open(String folderPrefix) {
+        String prefix = folderPrefix.endsWith("/") ? folderPrefix : folderPrefix + "/";
+        if (slots.availablePermits() == 0) {
+            throw new RejectedExecutionException("Too many folder downloads in progress");
+        }
+        return out -> {
+            try {
+                if (!slots.tryAcquire(slotWaitSeconds, TimeUnit.SECONDS)) {
+                    // The response is already committed; the client sees a truncated download
+                    throw new IOException("Too many folder downloads in progress");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Folder download interrupted", e);
+            }
+            try {
+                write(prefix, out);
+            } finally {
+                slots.release();
+            }
+        };
+    }
+
+    private void write(String prefix, OutputStream out) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        Deque<Entry> window = new ArrayDeque<>();
+        List<String> errors = new ArrayList<>();
+        try {
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 65536));
+            Iterator<Entry> files = new FolderWalk(prefix);
+            while (true) {
+                while (window.size() < prefetchCount && files.hasNext()) {
+                    window.add(prefetch(files.next()));
+                }
+                Entry entry = window.poll();
+                if (entry == null) {
+                    break;
+                }
+                writeEntry(zip, entry, errors);
+            }
+
+            if (!errors.isEmpty()) {
+                zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+                zip.putNextEntry(new ZipEntry(ERRORS_ENTRY));
+                zip.write(String.join("\n", errors).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            // Finishes the archive without closing the response stream
+            zip.finish();
+            zip.flush();
+            outcome = errors.isEmpty() ? "success" : "partial";
+        } finally {
+            window.forEach(entry -> {
+                if (entry.content != null) entry.content.cancel(true);
+            });
+            sample.stop(Timer.builder("dms.download.zip").tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+
+    private Entry prefetch(Entry entry) {
+        if (entry.info.getSize() <= prefetchMaxFileBytes) {
+            entry.content = prefetchExecutor.submit(() -> {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) entry.info.getSize());
+                storageService.downloadFile(entry.path, null, buffer);
+                return buffer.toByteArray();
+            });
+        }
+        return entry;
+    }
+
+    // A file that is gone or unreadable before any of it was written is skipped and listed
+    // in ERRORS_ENTRY; a failure halfway through a streamed file aborts the download
+    private void writeEntry(ZipOutputStream zip, Entry entry, List<String> errors) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(entry.name);
+        if (entry.info.getLastModified() != null) {
+            zipEntry.setLastModifiedTime(FileTime.from(entry.info.getLastModified().toInstant()));
+        }
+        boolean compressed = COMPRESSED_TYPES.contains(entry.info.getType().toLowerCase(Locale.ROOT));
+
+        if (entry.content != null) {
+            byte[] data;
+            try {
+                data = entry.content.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Folder download interrupted", e);
+            } catch (ExecutionException e) {
+                skip(entry, e.getCause(), errors);
+                return;
+            }
+
+            if (compressed) {
+                // STORED needs size and CRC up front, which only buffered files have
+                CRC32 crc = new CRC32();
+                crc.update(data);
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(data.length);
+                zipEntry.setCompressedSize(data.length);
+                zipEntry.setCrc(crc.getValue());
+            } else {
+                zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+            }
+            zip.putNextEntry(zipEntry);
+            zip.write(data);
+            zip.closeEntry();
+            return;
+        }
+
+        String eTag;
+        try {
+            FileMetadataDTO metadata = storageService.getFileMetadata(entry.path);
+            eTag = metadata.getETag();
+        } catch (RuntimeException e) {
+            skip(entry, e, errors);
+            return;
+        }
+        // Streamed files are too large to CRC in advance: deflate without compression instead
+        zip.setLevel(compressed ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+        zip.putNextEntry(zipEntry);
+        storageService.downloadFile(entry.path, eTag, zip);
+        zip.closeEntry();
+    }
+
+    private void skip(Entry entry, Throwable cause, List<String> errors) {
+        log.warn("Skipping {} in folder download: {}", entry.path, cause.getMessage());
+        errors.add(entry.name + ": " + cause.getMessage());
+    }
+
+    private static final class Entry {
+        final String path;
+        final String name; // relative to the downloaded folder
+        final FileInfoDTO info;
+        Future<byte[]> content; // null when streamed
+
+        Entry(String path, String name, FileInfoDTO info) {
+            this.path = path;
+            this.name = name;
+            this.info = info;
+        }
+    }
+
+    // Lazily lists the tree one page at a time: the files of a folder first, then its subfolders
+    private final class FolderWalk implements Iterator<Entry> {
+        private final String root;
+        private final Deque<String> folders = new ArrayDeque<>();
+        private String folder;
+        private String continuationToken;
+        private Iterator<FileInfoDTO> page = List.<FileInfoDTO>of().iterator();
+        private Entry next;
+
+        FolderWalk(String root) {
+            this.root = root;
+            folders.push(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (page.hasNext()) {
+                    FileInfoDTO info = page.next();
+                    if (info.isFolder()) {
+                        folders.add(folder + info.getName());
+                    } else {
+                        String path = folder + info.getName();
+                        next = new Entry(path, path.substring(root.length()), info);
+                    }
+                } else if (folder != null && continuationToken != null) {
+                    loadPage();
+                } else if (!folders.isEmpty()) {
+                    folder = folders.poll();
+                    continuationToken = null;
+                    loadPage();
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry entry = next;
+            next = null;
+            return entry;
+        }
+
+        private void loadPage() {
+            FilePageDTO result = storageService.listUserFilesPage(folder, continuationToken, LIST_PAGE_SIZE);
+            page = result.getItems().iterator();
+            continuationToken = result.getContinuationToken();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.DeleteJobDTO;
+import com.mpma.dms.enums.JobStatus;
+import com.mpma.dms.service.DeleteProgress;
+import com.mpma.dms.service.FolderDeleteService;
+import com.mpma.dms.service.PreviewService;
+import com.mpma.dms.service.SearchService;
+import com.mpma.dms.service.StorageBackend;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs folder deletes in the background so the HTTP request returns a job ID right away.
+// Job concurrency and queue length are bounded; a full queue rejects new jobs.
+@Service
+@RequiredArgsConstructor
+public class FolderDeleteServiceImpl implements FolderDeleteService {
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final StorageBackend storageService;
+    private final SearchService searchService;
+    private final PreviewService previewService;
+
+    @Value("${storage.delete.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${storage.delete.max-queued-jobs:100}")
+    private int maxQueuedJobs;
+
+    // Finished jobs stay queryable for this long
+    @Value("${storage.delete.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    private final Map<String, DeleteJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor jobExecutor;
+
+    @PostConstruct
+    public void init() {
+        jobExecutor = new ThreadPoolExecutor(
+                maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxQueuedJobs),
+                new CustomizableThreadFactory("folder-delete-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    @Override
+    public DeleteJobDTO submit(String folderPrefix) {
+        evictExpiredJobs();
+
+        // A delete of the same folder that is still queued or running is reused
+        for (DeleteJob existing : jobs.values()) {
+            if (existing.prefix.equals(folderPrefix) && !existing.isFinished()) {
+                return existing.toDTO();
+            }
+        }
+
+        DeleteJob job = new DeleteJob(UUID.randomUUID().toString(), folderPrefix);
+        jobs.put(job.jobId, job);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.jobId);
+            throw e;
+        }
+        return job.toDTO();
+    }
+
+    @Override
+    public Optional<DeleteJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(DeleteJob::toDTO);
+    }
+
+    private void run(DeleteJob job) {
+        job.status = JobStatus.RUNNING;
+        try {
+            storageService.deleteFolder(job.prefix, job);
+            deletePreviews(job);
+            job.status = job.failed.get() == 0 ? JobStatus.COMPLETED : JobStatus.FAILED;
+        } catch (RuntimeException e) {
+            job.failed(job.prefix, e.getMessage());
+            job.status = JobStatus.FAILED;
+        } finally {
+            // Also after a partial failure: the user asked for the whole folder to go
+            searchService.removeFolder(job.prefix);
+            job.finishedAt = OffsetDateTime.now();
+        }
+    }
+
+    // Thumbnails live outside the folder; a failure there is reported but does not stop the job
+    private void deletePreviews(DeleteJob job) {
+        try {
+            previewService.removeFolder(job.prefix);
+        } catch (RuntimeException e) {
+            job.failed(previewService.previewPath(job.prefix), e.getMessage());
+        }
+    }
+
+    private void evictExpiredJobs() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(Duration.ofMinutes(jobRetentionMinutes));
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static final class DeleteJob implements DeleteProgress {
+        private final String jobId;
+        private final String prefix;
+        private final OffsetDateTime startedAt = OffsetDateTime.now();
+        private final AtomicLong listed = new AtomicLong();
+        private final AtomicLong deleted = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final Queue<String> errors = new ConcurrentLinkedQueue<>();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile OffsetDateTime finishedAt;
+
+        private DeleteJob(String jobId, String prefix) {
+            this.jobId = jobId;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public void listed(int count) {
+            listed.addAndGet(count);
+        }
+
+        @Override
+        public void deleted(int count) {
+            deleted.addAndGet(count);
+        }
+
+        @Override
+        public void failed(String path, String reason) {
+            if (failed.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                errors.add(path + ": " + reason);
+            }
+        }
+
+        private boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        private DeleteJobDTO toDTO() {
+            return DeleteJobDTO.builder()
+                    .jobId(jobId)
+                    .prefix(prefix)
+                    .status(status)
+                    .listed(listed.get())
+                    .deleted(deleted.get())
+                    .failed(failed.get())
+                    .errors(new ArrayList<>(errors))
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
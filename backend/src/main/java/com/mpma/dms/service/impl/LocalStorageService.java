@@ -0,0 +1,461 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.BlockTimingDTO;
+import com.mpma.dms.dto.FileInfoDTO;
+import com.mpma.dms.dto.FileMetadataDTO;
+import com.mpma.dms.dto.FilePageDTO;
+import com.mpma.dms.dto.UploadResultDTO;
+import com.mpma.dms.exception.BadRequestException;
+import com.mpma.dms.exception.NotFoundException;
+import com.mpma.dms.service.DeleteProgress;
+import com.mpma.dms.service.StorageBackend;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Local-disk backend for on-prem nodes and load tests (storage.backend=local).
+// Uploads land via FileChannel.transferFrom, full downloads go out via
+// transferTo and ranged reads are served from memory-mapped windows. The
+// response is a servlet OutputStream, not a socket channel, so downloads are
+// still copied through a heap buffer – there is no sendfile-style zero copy.
+// Calls are timed under the same dms.storage.* meters as the Azure backend.
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+public class LocalStorageService implements StorageBackend {
+
+    private static final String BACKEND = "local";
+
+    private final FileListingCache listingCache;
+    private final StorageMetrics storageMetrics;
+
+    @Value("${storage.local.root-dir:./data/storage}")
+    private String rootDir;
+
+    // Largest region mapped at once for ranged reads
+    @Value("${storage.local.map-window:8388608}")
+    private int mapWindow;
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(rootDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+    }
+
+    // ✅ Upload: written to a temp file next to the target, then moved into place
+    @Override
+    public UploadResultDTO uploadFile(MultipartFile file, String pathWithFilename) throws IOException {
+        long started = System.nanoTime();
+        Path target = resolve(pathWithFilename);
+        long size = file.getSize();
+
+        storageMetrics.run(BACKEND, "upload", () -> {
+            try (InputStream in = file.getInputStream()) {
+                write(target, Channels.newChannel(in), size);
+            }
+        });
+        storageMetrics.recordBytes(BACKEND, "upload", size);
+        listingCache.invalidatePath(pathWithFilename);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        return new UploadResultDTO(pathWithFilename, size, 1, millis, List.of(new BlockTimingDTO(0, size, millis)));
+    }
+
+    @Override
+    public void uploadFileFromText(String path, String content) {
+        uploadFileFromBytes(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void uploadFileFromBytes(String path, byte[] bytes) {
+        try {
+            storageMetrics.run(BACKEND, "upload",
+                    () -> write(resolve(path), Channels.newChannel(new ByteArrayInputStream(bytes)), bytes.length));
+            storageMetrics.recordBytes(BACKEND, "upload", bytes.length);
+            listingCache.invalidatePath(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + path, e);
+        }
+    }
+
+    @Override
+    public FileMetadataDTO getFileMetadata(String pathWithFilename) {
+        Path file = resolve(pathWithFilename);
+        try {
+            BasicFileAttributes attributes = storageMetrics.call(BACKEND, "getMetadata",
+                    () -> Files.readAttributes(file, BasicFileAttributes.class));
+            return new FileMetadataDTO(
+                    pathWithFilename,
+                    attributes.size(),
+                    eTag(attributes),
+                    Files.probeContentType(file),
+                    attributes.lastModifiedTime().toInstant().atOffset(ZoneOffset.UTC)
+            );
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("File not found: " + pathWithFilename);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ✅ Download: transferTo into the wrapped response stream (the JDK copies through a buffer)
+    @Override
+    public void downloadFile(String pathWithFilename, String eTag, OutputStream out) throws IOException {
+        long bytes = storageMetrics.call(BACKEND, "download", () -> {
+            try (FileChannel channel = openForRead(pathWithFilename, eTag)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+                return position;
+            }
+        });
+        storageMetrics.recordBytes(BACKEND, "download", bytes);
+    }
+
+    // ✅ Ranged download: read from mapped windows of at most mapWindow bytes; only the
+    // mapped section is paged in, but writing it to the response is still a copy
+    @Override
+    public void downloadFileRange(String pathWithFilename, String eTag, long offset, long count,
+                                  OutputStream out) throws IOException {
+        long bytes = storageMetrics.call(BACKEND, "downloadRange", () -> {
+            try (FileChannel channel = openForRead(pathWithFilename, eTag)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long end = Math.min(offset + count, channel.size());
+                long position = offset;
+                while (position < end) {
+                    long length = Math.min(mapWindow, end - position);
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                    while (window.hasRemaining()) {
+                        target.write(window);
+                    }
+                    position += length;
+                }
+                return Math.max(0, end - offset);
+            }
+        });
+        storageMetrics.recordBytes(BACKEND, "downloadRange", bytes);
+    }
+
+    // ✅ List immediate children; folders are reported with a trailing "/" like blob prefixes
+    @Override
+    public List<FileInfoDTO> listUserFilesWithMetadata(String prefix) {
+        return listingCache.get(prefix, "all",
+                        () -> storageMetrics.call(BACKEND, "list", () -> new FilePageDTO(listChildren(prefix), null)))
+                .getItems();
+    }
+
+    // ✅ Pages are slices of the cached, name-ordered folder listing, so paging through a
+    // folder lists the directory once per cache TTL; the continuation token is the last name returned.
+    // Folders too large for the cache are paged straight from the directory instead (streamPage).
+    @Override
+    public FilePageDTO listUserFilesPage(String prefix, String continuationToken, int pageSize) {
+        FilePageDTO page = listingCache.getSlice(prefix,
+                () -> storageMetrics.call(BACKEND, "list", () -> listIfCacheable(prefix)), continuationToken, pageSize);
+        if (page != null) {
+            return page;
+        }
+        return storageMetrics.call(BACKEND, "listPage", () -> streamPage(prefix, continuationToken, pageSize));
+    }
+
+    // The full listing, or null when the folder has more entries than the listing cache holds.
+    // Counting only reads the directory; nothing is stat'ed for a folder that is not cached.
+    private FilePageDTO listIfCacheable(String prefix) {
+        Path folder = resolve(prefix);
+        if (Files.isDirectory(folder)) {
+            try (Stream<Path> children = Files.list(folder)) {
+                if (!listingCache.canHold(children.filter(child -> !isTemporary(child)).count())) {
+                    return null;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to list " + prefix, e);
+            }
+        }
+        return new FilePageDTO(listChildren(prefix), null);
+    }
+
+    private List<FileInfoDTO> listChildren(String prefix) {
+        Path folder = resolve(prefix);
+        if (!Files.isDirectory(folder)) {
+            return new ArrayList<>();
+        }
+
+        try (Stream<Path> children = Files.list(folder)) {
+            // Names (and the directory check behind the trailing "/") are worked out once per child
+            List<Map.Entry<String, Path>> selected = children
+                    .filter(child -> !isTemporary(child))
+                    .map(child -> Map.entry(entryName(child), child))
+                    .sorted(Map.Entry.comparingByKey())
+                    .toList();
+            return toFileInfos(selected);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + prefix, e);
+        }
+    }
+
+    // One page in a single pass over the directory: a heap keeps the pageSize smallest entry
+    // names after the token. An entry name is the file name, or the file name + "/" for a
+    // folder, so most entries are ruled out on the raw name without a directory check.
+    private FilePageDTO streamPage(String prefix, String continuationToken, int pageSize) {
+        Path folder = resolve(prefix);
+        if (!Files.isDirectory(folder)) {
+            return new FilePageDTO(new ArrayList<>(), null);
+        }
+
+        PriorityQueue<Map.Entry<String, Path>> smallest =
+                new PriorityQueue<>(Map.Entry.<String, Path>comparingByKey().reversed());
+        boolean more = false;
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(folder)) {
+            for (Path child : children) {
+                String name = child.getFileName().toString();
+                if (isTemporary(child)
+                        || continuationToken != null && (name + "/").compareTo(continuationToken) <= 0) {
+                    continue;
+                }
+                if (smallest.size() == pageSize && name.compareTo(smallest.peek().getKey()) >= 0) {
+                    more = true;
+                    continue;
+                }
+                String entry = entryName(child);
+                if (continuationToken != null && entry.compareTo(continuationToken) <= 0) {
+                    continue;
+                }
+                smallest.add(Map.entry(entry, child));
+                if (smallest.size() > pageSize) {
+                    smallest.poll();
+                    more = true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + prefix, e);
+        }
+
+        List<Map.Entry<String, Path>> page = new ArrayList<>(smallest);
+        page.sort(Map.Entry.comparingByKey());
+        String next = more && !page.isEmpty() ? page.get(page.size() - 1).getKey() : null;
+        return new FilePageDTO(toFileInfos(page), next);
+    }
+
+    // entries are (entry name, path) in name order
+    private List<FileInfoDTO> toFileInfos(List<Map.Entry<String, Path>> entries) {
+        List<FileInfoDTO> result = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Path> child : entries) {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(child.getValue(), BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                continue; // deleted while listing
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + child.getValue(), e);
+            }
+            boolean isFolder = attributes.isDirectory();
+
+            FileInfoDTO dto = new FileInfoDTO();
+            dto.setName(child.getKey());
+            dto.setType(isFolder ? "folder" : getExtension(child.getValue().getFileName().toString()));
+            dto.setSize(isFolder ? 0 : attributes.size());
+            dto.setLastModified(isFolder ? null : attributes.lastModifiedTime().toInstant().atOffset(ZoneOffset.UTC));
+            dto.setFolder(isFolder);
+
+            result.add(dto);
+        }
+        return result;
+    }
+
+    // Uploads in progress: resumable staging files and temp files about to be moved into place
+    private static boolean isTemporary(Path child) {
+        return child.getFileName().toString().startsWith(".tmp-");
+    }
+
+    private String entryName(Path child) {
+        String name = child.getFileName().toString();
+        return Files.isDirectory(child) ? name + "/" : name;
+    }
+
+    // Resumable uploads: blocks are written at their offset into a hidden temp file next to
+    // the target, which commitBlocks moves into place
+    @Override
+    public void stageBlock(String pathWithFilename, String uploadId, int index, long offset,
+                           byte[] data, int length) throws IOException {
+        Path staging = stagingFile(pathWithFilename, uploadId);
+        storageMetrics.run(BACKEND, "stageBlock", () -> {
+            Files.createDirectories(staging.getParent());
+            try (FileChannel channel = FileChannel.open(staging, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+                long position = offset;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+        });
+        storageMetrics.recordBytes(BACKEND, "stageBlock", length);
+    }
+
+    @Override
+    public void commitBlocks(String pathWithFilename, String uploadId, int blockCount, long size) throws IOException {
+        Path staging = stagingFile(pathWithFilename, uploadId);
+        if (blockCount == 0) {
+            // Empty file: nothing was ever staged
+            Files.createDirectories(staging.getParent());
+            Files.write(staging, new byte[0]);
+        }
+        if (!Files.exists(staging) || Files.size(staging) != size) {
+            throw new IOException("Staged data is incomplete: " + pathWithFilename);
+        }
+        storageMetrics.run(BACKEND, "commitBlocks", () -> Files.move(staging, resolve(pathWithFilename),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE));
+        listingCache.invalidatePath(pathWithFilename);
+    }
+
+    @Override
+    public void abortBlocks(String pathWithFilename, String uploadId) {
+        Path staging = stagingFile(pathWithFilename, uploadId);
+        try {
+            if (Files.deleteIfExists(staging)) {
+                pruneEmptyParents(staging.getParent());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to discard upload " + uploadId, e);
+        }
+    }
+
+    private Path stagingFile(String pathWithFilename, String uploadId) {
+        return resolve(pathWithFilename).resolveSibling(".tmp-upload-" + uploadId);
+    }
+
+    @Override
+    public void deleteFile(String pathWithFilename) {
+        Path file = resolve(pathWithFilename);
+        try {
+            storageMetrics.run(BACKEND, "delete", () -> {
+                if (Files.deleteIfExists(file)) {
+                    pruneEmptyParents(file.getParent());
+                }
+            });
+            listingCache.invalidatePath(pathWithFilename);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete " + pathWithFilename, e);
+        }
+    }
+
+    @Override
+    public void deleteFolder(String folderPrefix, DeleteProgress progress) {
+        Path folder = resolve(folderPrefix);
+        if (!Files.isDirectory(folder) || folder.equals(root)) {
+            return;
+        }
+
+        try {
+            storageMetrics.run(BACKEND, "deleteFolder", () -> {
+                try (Stream<Path> walk = Files.walk(folder)) {
+                    for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                        boolean isFile = Files.isRegularFile(path);
+                        if (isFile) progress.listed(1);
+                        try {
+                            Files.deleteIfExists(path);
+                            if (isFile) progress.deleted(1);
+                        } catch (IOException e) {
+                            progress.failed(root.relativize(path).toString(), e.getMessage());
+                        }
+                    }
+                }
+                pruneEmptyParents(folder.getParent());
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete folder " + folderPrefix, e);
+        } finally {
+            listingCache.invalidateFolder(folderPrefix);
+        }
+    }
+
+    private void write(Path target, ReadableByteChannel source, long size) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".tmp-", null);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long position = 0;
+                long transferred;
+                // transferFrom may move fewer bytes than asked for; stop at end of stream
+                while (position < size && (transferred = channel.transferFrom(source, position, size - position)) > 0) {
+                    position += transferred;
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private FileChannel openForRead(String pathWithFilename, String eTag) throws IOException {
+        Path file = resolve(pathWithFilename);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        if (eTag != null) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (!eTag.equals(eTag(attributes))) {
+                channel.close();
+                throw new IOException("File changed since it was opened: " + pathWithFilename);
+            }
+        }
+        return channel;
+    }
+
+    // Folders only exist while they hold files, as with blob prefixes
+    private void pruneEmptyParents(Path folder) throws IOException {
+        while (folder != null && !folder.equals(root) && folder.startsWith(root)) {
+            try (Stream<Path> children = Files.list(folder)) {
+                if (children.findAny().isPresent()) {
+                    return;
+                }
+            }
+            Files.deleteIfExists(folder);
+            folder = folder.getParent();
+        }
+    }
+
+    // Rejects paths that would escape the storage root ("../" and absolute paths)
+    private Path resolve(String path) {
+        Path resolved = root.resolve(path.startsWith("/") ? path.substring(1) : path).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new BadRequestException("Path outside storage root: " + path);
+        }
+        return resolved;
+    }
+
+    private String eTag(BasicFileAttributes attributes) {
+        return "\"" + Long.toHexString(attributes.lastModifiedTime().toMillis())
+                + "-" + Long.toHexString(attributes.size()) + "\"";
+    }
+
+    private String getExtension(String name) {
+        int lastDot = name.lastIndexOf('.');
+        return (lastDot != -1 && lastDot < name.length() - 1)
+                ? name.substring(lastDot + 1)
+                : "unknown";
+    }
+}
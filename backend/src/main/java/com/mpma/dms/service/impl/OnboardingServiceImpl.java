@@ -0,0 +1,186 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.config.ExecutionMode;
+import com.mpma.dms.entity.OnboardingTask;
+import com.mpma.dms.enums.JobStatus;
+import com.mpma.dms.repository.OnboardingTaskRepository;
+import com.mpma.dms.service.OnboardingService;
+import com.mpma.dms.service.StorageBackend;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+// Transactional-outbox onboarding: createUser/bulk import write an onboarding_task row
+// with the user, and the default folder skeleton is uploaded after commit (all files
+// concurrently). Failed tasks are retried with exponential backoff by a poller that also
+// picks up tasks lost to a full queue or a crashed node. Uploads overwrite the same
+// files with the same content, so running a task twice is harmless.
+@Service
+@RequiredArgsConstructor
+public class OnboardingServiceImpl implements OnboardingService {
+
+    private static final List<String> DEFAULT_FILES = List.of(
+            "Photos/Videos.txt",
+            "Music/Music.txt",
+            "Pictures/Pictures.txt",
+            "Documents/Documents.txt"
+    );
+
+    private static final Set<JobStatus> CLAIMABLE = EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING);
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final OnboardingTaskRepository taskRepository;
+    private final StorageBackend storageService;
+    private final ExecutionMode executionMode;
+
+    // Tasks processed concurrently
+    @Value("${onboarding.workers:4}")
+    private int workers;
+
+    // Tasks waiting for a worker; overflow is left to the poller
+    @Value("${onboarding.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // Threads shared by all default-file uploads (platform-thread mode only)
+    @Value("${onboarding.upload-pool-size:16}")
+    private int uploadPoolSize;
+
+    @Value("${onboarding.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${onboarding.retry-base-seconds:5}")
+    private long retryBaseSeconds;
+
+    // A RUNNING task whose lease ran out is assumed lost and claimed again
+    @Value("${onboarding.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${onboarding.poll-batch-size:200}")
+    private int pollBatchSize;
+
+    private ThreadPoolExecutor workerExecutor;
+
+    private ExecutorService uploadExecutor;
+
+    @PostConstruct
+    public void init() {
+        workerExecutor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("onboarding-"),
+                new ThreadPoolExecutor.DiscardPolicy()
+        );
+        uploadExecutor = executionMode.newBlockingExecutor("onboarding-upload-", uploadPoolSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerExecutor.shutdownNow();
+        uploadExecutor.shutdownNow();
+    }
+
+    @Override
+    public void enqueue(Collection<Long> userIds) {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<OnboardingTask> tasks = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            tasks.add(OnboardingTask.builder()
+                    .userId(userId)
+                    .status(JobStatus.QUEUED)
+                    .nextAttemptAt(now)
+                    .build());
+        }
+        List<Long> taskIds = taskRepository.saveAll(tasks).stream().map(OnboardingTask::getId).toList();
+
+        // Files are only created once the user rows are committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(taskIds);
+                }
+            });
+        } else {
+            dispatch(taskIds);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${onboarding.poll-interval-ms:10000}")
+    public void processDue() {
+        dispatch(taskRepository.findDueIds(CLAIMABLE, OffsetDateTime.now(), PageRequest.of(0, pollBatchSize)));
+    }
+
+    private void dispatch(List<Long> taskIds) {
+        for (Long taskId : taskIds) {
+            workerExecutor.execute(() -> process(taskId));
+        }
+    }
+
+    private void process(Long taskId) {
+        OffsetDateTime now = OffsetDateTime.now();
+        if (taskRepository.claim(taskId, CLAIMABLE, now, now.plusSeconds(leaseSeconds)) == 0) {
+            return; // already done, not due yet, or claimed by another worker
+        }
+        OnboardingTask task = taskRepository.findById(taskId).orElse(null);
+        if (task == null) {
+            return;
+        }
+
+        try {
+            createDefaultFiles(task.getUserId().toString());
+            task.setStatus(JobStatus.COMPLETED);
+            task.setLastError(null);
+        } catch (Exception e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            task.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+            if (task.getAttempts() >= maxAttempts) {
+                task.setStatus(JobStatus.FAILED);
+            } else {
+                task.setStatus(JobStatus.QUEUED);
+                task.setNextAttemptAt(OffsetDateTime.now().plus(backoff(task.getAttempts())));
+            }
+        }
+        taskRepository.save(task);
+    }
+
+    // ✅ The default files go up concurrently: one storage round trip instead of four
+    private void createDefaultFiles(String userId) throws Exception {
+        String content = "This is default file for user " + userId;
+
+        List<Future<?>> uploads = new ArrayList<>(DEFAULT_FILES.size());
+        for (String file : DEFAULT_FILES) {
+            uploads.add(uploadExecutor.submit(() -> storageService.uploadFileFromText(userId + "/" + file, content)));
+        }
+        try {
+            for (Future<?> upload : uploads) {
+                upload.get();
+            }
+        } catch (ExecutionException e) {
+            uploads.forEach(upload -> upload.cancel(true));
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = Duration.ofSeconds(retryBaseSeconds).multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+}
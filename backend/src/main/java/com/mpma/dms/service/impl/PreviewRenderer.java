@@ -0,0 +1,100 @@
+package com.mpma.dms.service.impl;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Set;
+
+// Thumbnail rendering: the first PDF page is rasterised straight at thumbnail scale
+// (no full-resolution render and downscale); images are decoded and scaled down.
+// Output is always JPEG, which keeps photo thumbnails small.
+@Component
+public class PreviewRenderer {
+
+    private static final Set<String> IMAGE_TYPES = Set.of("png", "jpg", "jpeg", "gif", "bmp");
+
+    @Value("${preview.max-width:320}")
+    private int maxWidth;
+
+    @Value("${preview.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    public boolean supports(String fileName) {
+        String extension = extension(fileName);
+        return extension.equals("pdf") || IMAGE_TYPES.contains(extension);
+    }
+
+    public byte[] render(String fileName, InputStream in) throws IOException {
+        BufferedImage thumbnail = extension(fileName).equals("pdf") ? renderFirstPage(in) : scaleImage(in);
+        return toJpeg(thumbnail);
+    }
+
+    private BufferedImage renderFirstPage(InputStream in) throws IOException {
+        try (PDDocument document = PDDocument.load(in, MemoryUsageSetting.setupMixed(16L * 1024 * 1024))) {
+            if (document.getNumberOfPages() == 0) {
+                throw new IOException("PDF has no pages");
+            }
+            PDRectangle page = document.getPage(0).getCropBox();
+            float scale = Math.min(1f, maxWidth / page.getWidth());
+            return new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    private BufferedImage scaleImage(InputStream in) throws IOException {
+        BufferedImage source = ImageIO.read(in);
+        if (source == null) {
+            throw new IOException("Unsupported image format");
+        }
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+
+        // Transparent areas are painted white, as JPEG has no alpha
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private byte[] toJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private String extension(String fileName) {
+        int lastDot = fileName.lastIndexOf('.');
+        return lastDot != -1 ? fileName.substring(lastDot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,187 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.FileMetadataDTO;
+import com.mpma.dms.service.PreviewService;
+import com.mpma.dms.service.StorageBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Uploads of PDFs and images are queued for thumbnail rendering on a bounded pool; the
+// JPEG is stored at previewPrefix + path + ".jpg", outside the users' folders so it never
+// shows up in listings. A full queue skips the preview (dms.preview.dropped) instead of
+// slowing uploads down; the file browser falls back to an icon.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PreviewServiceImpl implements PreviewService {
+
+    private final StorageBackend storageService;
+    private final PreviewRenderer previewRenderer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${preview.prefix:_preview/}")
+    private String previewPrefix;
+
+    @Value("${preview.threads:1}")
+    private int previewThreads;
+
+    @Value("${preview.queue-capacity:200}")
+    private int queueCapacity;
+
+    // Larger files get no preview
+    @Value("${preview.max-source-bytes:33554432}")
+    private long maxSourceBytes;
+
+    // path -> sequence of the latest render request; cleared by a delete so a render
+    // that was already running does not write a preview for a deleted file
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Striped per-path locks: a render checks `pending` and uploads under its path's lock,
+    // and deletes clear `pending` under the same lock. Either the upload finishes before the
+    // delete clears the entry (and the delete then removes it), or the render sees the entry
+    // gone and skips the upload.
+    private final ReentrantLock[] pathLocks = new ReentrantLock[64];
+
+    {
+        for (int i = 0; i < pathLocks.length; i++) {
+            pathLocks[i] = new ReentrantLock();
+        }
+    }
+
+    private ThreadPoolExecutor renderExecutor;
+
+    @PostConstruct
+    public void init() {
+        renderExecutor = new ThreadPoolExecutor(
+                previewThreads, previewThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("preview-render-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdownNow();
+    }
+
+    @Override
+    public void renderAsync(String pathWithFilename) {
+        if (!previewRenderer.supports(pathWithFilename)) {
+            return;
+        }
+        long seq = sequence.incrementAndGet();
+        pending.put(pathWithFilename, seq);
+        try {
+            renderExecutor.execute(() -> render(pathWithFilename, seq));
+        } catch (RejectedExecutionException e) {
+            pending.remove(pathWithFilename, seq);
+            meterRegistry.counter("dms.preview.dropped").increment();
+            log.warn("Preview queue is full, no preview for {}", pathWithFilename);
+        }
+    }
+
+    // A preview that was never rendered (or failed) is just not there
+    @Override
+    public Optional<FileMetadataDTO> findPreview(String pathWithFilename) {
+        if (!previewRenderer.supports(pathWithFilename)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(storageService.getFileMetadata(previewPath(pathWithFilename)));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String previewPath(String pathWithFilename) {
+        return previewPrefix + pathWithFilename + ".jpg";
+    }
+
+    @Override
+    public void remove(String pathWithFilename) {
+        ReentrantLock lock = pathLock(pathWithFilename);
+        lock.lock();
+        try {
+            pending.remove(pathWithFilename);
+        } finally {
+            lock.unlock();
+        }
+        if (previewRenderer.supports(pathWithFilename)) {
+            storageService.deleteFile(previewPath(pathWithFilename));
+        }
+    }
+
+    @Override
+    public void removeFolder(String folderPrefix) {
+        String prefix = folderPrefix.endsWith("/") ? folderPrefix : folderPrefix + "/";
+        for (ReentrantLock lock : pathLocks) {
+            lock.lock();
+        }
+        try {
+            pending.keySet().removeIf(path -> path.startsWith(prefix));
+        } finally {
+            for (ReentrantLock lock : pathLocks) {
+                lock.unlock();
+            }
+        }
+        storageService.deleteFolder(previewPrefix + prefix);
+    }
+
+    private void render(String path, long seq) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            FileMetadataDTO metadata = storageService.getFileMetadata(path);
+            if (metadata.getSize() > maxSourceBytes) {
+                outcome = "skipped";
+                return;
+            }
+
+            ByteArrayOutputStream source = new ByteArrayOutputStream((int) metadata.getSize());
+            storageService.downloadFile(path, metadata.getETag(), source);
+            byte[] thumbnail = previewRenderer.render(path, new ByteArrayInputStream(source.toByteArray()));
+
+            ReentrantLock lock = pathLock(path);
+            lock.lock();
+            try {
+                if (pending.remove(path, seq)) {
+                    storageService.uploadFileFromBytes(previewPath(path), thumbnail);
+                    outcome = "success";
+                } else {
+                    outcome = "superseded";
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to render preview for {}", path, e);
+        } finally {
+            pending.remove(path, seq);
+            sample.stop(Timer.builder("dms.preview.render").tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+
+    private ReentrantLock pathLock(String path) {
+        return pathLocks[Math.floorMod(path.hashCode(), pathLocks.length)];
+    }
+}
@@ -0,0 +1,423 @@
+package com.mpma.dms.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+// In-process inverted index, one per user so a query only touches that user's postings.
+// Every change is appended to the user's log file under search.index.dir and the log is
+// replayed the first time the user is searched or indexed after a restart; once the log
+// holds mostly superseded records it is rewritten with just the live documents.
+// Results are ranked with BM25.
+@Slf4j
+@Component
+public class SearchIndex {
+
+    private static final int LOG_MAGIC = 0x444D5349; // "DMSI"
+    private static final int LOG_VERSION = 1;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_REMOVE_PREFIX = 3;
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 40;
+
+    @Value("${search.index.dir:./data/search-index}")
+    private String indexDir;
+
+    // Superseded log records tolerated (beyond the live ones) before the log is compacted
+    @Value("${search.index.compact-slack:1000}")
+    private int compactSlack;
+
+    private Path dir;
+
+    private final Map<String, UserIndex> indexes = new ConcurrentHashMap<>();
+
+    public record IndexedDocument(String path, long size, long lastModifiedMillis, Map<String, Integer> termFreqs) {
+    }
+
+    public record Hit(String path, long size, long lastModifiedMillis, double score) {
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        dir = Paths.get(indexDir).toAbsolutePath().normalize();
+        Files.createDirectories(dir);
+    }
+
+    // Adds or replaces a document. stillCurrent is checked under the index lock, so a
+    // remove that ran while the document was being extracted wins over the late put.
+    public void put(String userId, IndexedDocument document, BooleanSupplier stillCurrent) {
+        UserIndex index = index(userId);
+        index.lock.writeLock().lock();
+        try {
+            if (!stillCurrent.getAsBoolean()) {
+                return;
+            }
+            index.put(document);
+            index.append(out -> writePut(out, document));
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String userId, String path) {
+        UserIndex index = index(userId);
+        index.lock.writeLock().lock();
+        try {
+            if (index.remove(path)) {
+                index.append(out -> {
+                    out.writeByte(OP_REMOVE);
+                    out.writeUTF(path);
+                });
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    public void removePrefix(String userId, String prefix) {
+        UserIndex index = index(userId);
+        index.lock.writeLock().lock();
+        try {
+            if (index.removePrefix(prefix) > 0) {
+                index.append(out -> {
+                    out.writeByte(OP_REMOVE_PREFIX);
+                    out.writeUTF(prefix);
+                });
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    // Top `limit` documents under pathPrefix for the given (already tokenized) terms
+    public List<Hit> search(String userId, String pathPrefix, Collection<String> terms, int limit) {
+        UserIndex index = index(userId);
+        index.lock.readLock().lock();
+        try {
+            return index.search(pathPrefix, terms, limit);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    // Lower-cased runs of letters and digits; counts are added to termFreqs with the given weight
+    public static void tokenize(CharSequence text, int weight, Map<String, Integer> termFreqs) {
+        StringBuilder term = new StringBuilder();
+        for (int i = 0, length = text.length(); i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else if (!term.isEmpty()) {
+                if (term.length() >= MIN_TERM_LENGTH && term.length() <= MAX_TERM_LENGTH) {
+                    termFreqs.merge(term.toString(), weight, Integer::sum);
+                }
+                term.setLength(0);
+            }
+        }
+    }
+
+    private UserIndex index(String userId) {
+        return indexes.computeIfAbsent(userId, this::load);
+    }
+
+    private UserIndex load(String userId) {
+        Path logFile = dir.resolve(Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(userId.getBytes(StandardCharsets.UTF_8)) + ".idx");
+        UserIndex index = new UserIndex(logFile);
+        if (!Files.exists(logFile)) {
+            return index;
+        }
+
+        boolean clean = replay(index, logFile);
+        // Drop superseded records and any record cut short by a crash
+        if (!clean || index.logRecords > index.idsByPath.size() + compactSlack) {
+            index.compact();
+        }
+        return index;
+    }
+
+    // Returns false if the log ended in a partial record or could not be read
+    private boolean replay(UserIndex index, Path logFile) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile)))) {
+            if (in.readInt() != LOG_MAGIC || in.readInt() != LOG_VERSION) {
+                log.warn("Ignoring search index {} with an unknown format", logFile);
+                return false;
+            }
+            while (true) {
+                int op = in.read();
+                if (op == -1) {
+                    return true;
+                }
+                switch (op) {
+                    case OP_PUT -> index.put(readPut(in));
+                    case OP_REMOVE -> index.remove(in.readUTF());
+                    case OP_REMOVE_PREFIX -> index.removePrefix(in.readUTF());
+                    default -> throw new IOException("Unknown record type " + op);
+                }
+                index.logRecords++;
+            }
+        } catch (EOFException e) {
+            log.warn("Search index {} ends in a partial record, keeping {} documents", logFile, index.idsByPath.size());
+            return false;
+        } catch (IOException e) {
+            log.warn("Search index {} is unreadable, keeping {} documents", logFile, index.idsByPath.size(), e);
+            return false;
+        }
+    }
+
+    private static void writePut(DataOutputStream out, IndexedDocument document) throws IOException {
+        out.writeByte(OP_PUT);
+        out.writeUTF(document.path());
+        out.writeLong(document.size());
+        out.writeLong(document.lastModifiedMillis());
+        out.writeInt(document.termFreqs().size());
+        for (Map.Entry<String, Integer> entry : document.termFreqs().entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private static IndexedDocument readPut(DataInputStream in) throws IOException {
+        String path = in.readUTF();
+        long size = in.readLong();
+        long lastModified = in.readLong();
+        int terms = in.readInt();
+        Map<String, Integer> termFreqs = new HashMap<>(terms * 2);
+        for (int i = 0; i < terms; i++) {
+            termFreqs.put(in.readUTF(), in.readInt());
+        }
+        return new IndexedDocument(path, size, lastModified, termFreqs);
+    }
+
+    @FunctionalInterface
+    private interface LogWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Document IDs are slots in `documents`; freed slots are reused
+    private final class UserIndex {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Path logFile;
+        private final Map<String, Integer> idsByPath = new HashMap<>();
+        private final List<StoredDocument> documents = new ArrayList<>();
+        private final Deque<Integer> freeIds = new ArrayDeque<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        private long totalLength;
+        private int logRecords;
+
+        private UserIndex(Path logFile) {
+            this.logFile = logFile;
+        }
+
+        private void put(IndexedDocument document) {
+            remove(document.path());
+
+            String[] terms = document.termFreqs().keySet().toArray(new String[0]);
+            int[] freqs = new int[terms.length];
+            int length = 0;
+            for (int i = 0; i < terms.length; i++) {
+                freqs[i] = document.termFreqs().get(terms[i]);
+                length += freqs[i];
+            }
+
+            StoredDocument stored = new StoredDocument(document.path(), document.size(),
+                    document.lastModifiedMillis(), terms, freqs, new int[terms.length], length);
+            int id;
+            if (freeIds.isEmpty()) {
+                id = documents.size();
+                documents.add(stored);
+            } else {
+                id = freeIds.pop();
+                documents.set(id, stored);
+            }
+            idsByPath.put(document.path(), id);
+            totalLength += length;
+
+            for (int i = 0; i < terms.length; i++) {
+                stored.slots()[i] = postings.computeIfAbsent(terms[i], t -> new Postings()).add(id, freqs[i], i);
+            }
+        }
+
+        private boolean remove(String path) {
+            Integer id = idsByPath.remove(path);
+            if (id == null) {
+                return false;
+            }
+            StoredDocument stored = documents.set(id, null);
+            freeIds.push(id);
+            totalLength -= stored.length();
+            // Each term knows the document's slot in its postings list, so removal is
+            // O(terms) rather than a scan of every list the document appears in
+            for (int i = 0; i < stored.terms().length; i++) {
+                Postings list = postings.get(stored.terms()[i]);
+                int slot = stored.slots()[i];
+                if (list.removeAt(slot)) {
+                    documents.get(list.ids[slot]).slots()[list.termIndexes[slot]] = slot;
+                }
+                if (list.size == 0) {
+                    postings.remove(stored.terms()[i]);
+                }
+            }
+            return true;
+        }
+
+        private int removePrefix(String prefix) {
+            List<String> paths = idsByPath.keySet().stream().filter(path -> path.startsWith(prefix)).toList();
+            paths.forEach(this::remove);
+            return paths.size();
+        }
+
+        private List<Hit> search(String pathPrefix, Collection<String> terms, int limit) {
+            int documentCount = idsByPath.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = Math.max(1.0, (double) totalLength / documentCount);
+
+            // Scores accumulate in an array indexed by document ID; matched lists the IDs touched
+            double[] scores = new double[documents.size()];
+            int[] matched = new int[16];
+            int matchedCount = 0;
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int id = list.ids[i];
+                    double tf = list.freqs[i];
+                    double norm = K1 * (1 - B + B * documents.get(id).length() / averageLength);
+                    if (scores[id] == 0) {
+                        if (matchedCount == matched.length) {
+                            matched = Arrays.copyOf(matched, matchedCount * 2);
+                        }
+                        matched[matchedCount++] = id;
+                    }
+                    scores[id] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            // Keep the best `limit` matches in a min-heap
+            PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+            for (int m = 0; m < matchedCount; m++) {
+                StoredDocument stored = documents.get(matched[m]);
+                if (!stored.path().startsWith(pathPrefix)) {
+                    continue;
+                }
+                best.add(new Hit(stored.path(), stored.size(), stored.lastModifiedMillis(), scores[matched[m]]));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+            return hits;
+        }
+
+        private void append(LogWriter writer) {
+            try {
+                boolean created = !Files.exists(logFile);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(logFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+                    if (created) {
+                        out.writeInt(LOG_MAGIC);
+                        out.writeInt(LOG_VERSION);
+                    }
+                    writer.write(out);
+                }
+                logRecords++;
+            } catch (IOException e) {
+                // The in-memory index stays correct; only a restart would lose this change
+                log.warn("Failed to append to search index {}", logFile, e);
+                return;
+            }
+            if (logRecords > idsByPath.size() + compactSlack) {
+                compact();
+            }
+        }
+
+        // Rewrites the log with one record per live document
+        private void compact() {
+            Path temp = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(LOG_MAGIC);
+                    out.writeInt(LOG_VERSION);
+                    for (int id : idsByPath.values()) {
+                        writePut(out, documents.get(id).toIndexedDocument());
+                    }
+                }
+                Files.move(temp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                logRecords = idsByPath.size();
+            } catch (IOException e) {
+                log.warn("Failed to compact search index {}", logFile, e);
+            }
+        }
+    }
+
+    // slots[i] is the document's position in the postings list of terms[i]
+    private record StoredDocument(String path, long size, long lastModifiedMillis,
+                                  String[] terms, int[] freqs, int[] slots, int length) {
+
+        private IndexedDocument toIndexedDocument() {
+            Map<String, Integer> termFreqs = new HashMap<>(terms.length * 2);
+            for (int i = 0; i < terms.length; i++) {
+                termFreqs.put(terms[i], freqs[i]);
+            }
+            return new IndexedDocument(path, size, lastModifiedMillis, termFreqs);
+        }
+    }
+
+    // Parallel arrays of document IDs and term frequencies for one term, plus the term's
+    // index in each document's terms array (to fix up its slot when an entry moves)
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int[] freqs = new int[4];
+        private int[] termIndexes = new int[4];
+        private int size;
+
+        // Returns the slot the entry was stored in
+        private int add(int id, int freq, int termIndex) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+                termIndexes = Arrays.copyOf(termIndexes, size * 2);
+            }
+            ids[size] = id;
+            freqs[size] = freq;
+            termIndexes[size] = termIndex;
+            return size++;
+        }
+
+        // Order within a postings list does not matter, so the last entry fills the gap.
+        // Returns true if an entry was moved into the slot.
+        private boolean removeAt(int slot) {
+            size--;
+            if (slot == size) {
+                return false;
+            }
+            ids[slot] = ids[size];
+            freqs[slot] = freqs[size];
+            termIndexes[slot] = termIndexes[size];
+            return true;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.FileMetadataDTO;
+import com.mpma.dms.dto.SearchHitDTO;
+import com.mpma.dms.service.SearchService;
+import com.mpma.dms.service.StorageBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Uploads are queued for text extraction on a small bounded pool and then added to the
+// owner's SearchIndex. Files are re-read from storage, so extraction never holds up the
+// upload request. A full queue drops the file from indexing (counted in
+// dms.search.index.dropped) rather than blocking uploads.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchServiceImpl implements SearchService {
+
+    // File name terms count this many times towards the term frequency
+    private static final int NAME_WEIGHT = 3;
+
+    private final StorageBackend storageService;
+    private final SearchIndex searchIndex;
+    private final TextExtractor textExtractor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${search.index.threads:1}")
+    private int indexThreads;
+
+    @Value("${search.index.queue-capacity:1000}")
+    private int queueCapacity;
+
+    // Larger files are indexed by name only
+    @Value("${search.extract.max-bytes:33554432}")
+    private long maxExtractBytes;
+
+    @Value("${search.max-results:100}")
+    private int maxResults;
+
+    // path -> sequence of the latest indexing request; a remove clears it so a
+    // stale extraction cannot put a deleted file back into the index
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ThreadPoolExecutor indexExecutor;
+
+    @PostConstruct
+    public void init() {
+        indexExecutor = new ThreadPoolExecutor(
+                indexThreads, indexThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("search-index-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexExecutor.shutdownNow();
+    }
+
+    @Override
+    public void indexAsync(String pathWithFilename) {
+        long seq = sequence.incrementAndGet();
+        pending.put(pathWithFilename, seq);
+        try {
+            indexExecutor.execute(() -> index(pathWithFilename, seq));
+        } catch (RejectedExecutionException e) {
+            pending.remove(pathWithFilename, seq);
+            meterRegistry.counter("dms.search.index.dropped").increment();
+            log.warn("Search indexing queue is full, {} was not indexed", pathWithFilename);
+        }
+    }
+
+    @Override
+    public void remove(String pathWithFilename) {
+        pending.remove(pathWithFilename);
+        searchIndex.remove(userId(pathWithFilename), pathWithFilename);
+    }
+
+    @Override
+    public void removeFolder(String folderPrefix) {
+        String prefix = folderPrefix.endsWith("/") ? folderPrefix : folderPrefix + "/";
+        pending.keySet().removeIf(path -> path.startsWith(prefix));
+        searchIndex.removePrefix(userId(prefix), prefix);
+    }
+
+    @Override
+    public List<SearchHitDTO> search(String userId, String folder, String query, int limit) {
+        Map<String, Integer> terms = new HashMap<>();
+        SearchIndex.tokenize(query, 1, terms);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        String userPrefix = userId + "/";
+        String prefix = (folder != null && !folder.isBlank()) ? userPrefix + folder + "/" : userPrefix;
+        int size = Math.max(1, Math.min(limit, maxResults));
+
+        return Timer.builder("dms.search.query").register(meterRegistry).record(() ->
+                searchIndex.search(userId, prefix, terms.keySet(), size).stream()
+                        .map(hit -> new SearchHitDTO(
+                                hit.path().substring(userPrefix.length()),
+                                fileName(hit.path()),
+                                hit.size(),
+                                Instant.ofEpochMilli(hit.lastModifiedMillis()).atOffset(ZoneOffset.UTC),
+                                hit.score()))
+                        .toList());
+    }
+
+    private void index(String path, long seq) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            FileMetadataDTO metadata = storageService.getFileMetadata(path);
+            String name = fileName(path);
+
+            Map<String, Integer> termFreqs = new HashMap<>();
+            SearchIndex.tokenize(name, NAME_WEIGHT, termFreqs);
+            if (textExtractor.supports(name) && metadata.getSize() <= maxExtractBytes) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream((int) metadata.getSize());
+                storageService.downloadFile(path, metadata.getETag(), content);
+                SearchIndex.tokenize(textExtractor.extract(name, new ByteArrayInputStream(content.toByteArray())), 1, termFreqs);
+            }
+
+            long lastModified = metadata.getLastModified() != null ? metadata.getLastModified().toInstant().toEpochMilli() : 0;
+            searchIndex.put(userId(path),
+                    new SearchIndex.IndexedDocument(path, metadata.getSize(), lastModified, termFreqs),
+                    () -> pending.remove(path, seq));
+            outcome = "success";
+        } catch (IOException | RuntimeException e) {
+            pending.remove(path, seq);
+            log.warn("Failed to index {}", path, e);
+        } finally {
+            sample.stop(Timer.builder("dms.search.index").tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+
+    private static String userId(String path) {
+        int slash = path.indexOf('/');
+        return slash != -1 ? path.substring(0, slash) : path;
+    }
+
+    private static String fileName(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+}
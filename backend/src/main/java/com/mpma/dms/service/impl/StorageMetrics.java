@@ -0,0 +1,62 @@
+package com.mpma.dms.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Latency and bytes moved per storage operation:
+//   dms.storage.operation{backend, operation, outcome}  – timer with percentile histogram
+//   dms.storage.bytes{backend, operation}               – size distribution of uploads/downloads
+@Component
+@RequiredArgsConstructor
+public class StorageMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    @FunctionalInterface
+    public interface Operation<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    @FunctionalInterface
+    public interface VoidOperation<E extends Exception> {
+        void run() throws E;
+    }
+
+    public <T, E extends Exception> T call(String backend, String operation, Operation<T, E> body) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = body.run();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("dms.storage.operation")
+                    .description("Storage backend call latency")
+                    .tag("backend", backend)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    public <E extends Exception> void run(String backend, String operation, VoidOperation<E> body) throws E {
+        call(backend, operation, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    public void recordBytes(String backend, String operation, long bytes) {
+        DistributionSummary.builder("dms.storage.bytes")
+                .description("Bytes moved per storage call")
+                .baseUnit("bytes")
+                .tag("backend", backend)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+}
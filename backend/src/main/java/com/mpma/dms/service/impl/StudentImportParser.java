@@ -0,0 +1,162 @@
+package com.mpma.dms.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mpma.dms.dto.StudentImportRowDTO;
+import com.mpma.dms.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Incremental readers for student import files: one record at a time is handed to the
+// handler, so memory use does not grow with the file. A record that cannot be read is
+// reported to the handler with an error instead of a row.
+final class StudentImportParser {
+
+    interface RowHandler {
+        void handle(int index, StudentImportRowDTO row, String error);
+    }
+
+    private StudentImportParser() {
+    }
+
+    // CSV with a header row naming the columns (username, password, fullName,
+    // nameWithInitials, nic, gpa, eligible; case-insensitive, any order).
+    // Quoted fields may contain commas and "" escapes but not line breaks.
+    static void parseCsv(InputStream in, RowHandler handler) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return;
+        }
+        if (headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = splitCsvLine(headerLine);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("username")) {
+            throw new BadRequestException("CSV header must contain a username column");
+        }
+
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                List<String> fields = splitCsvLine(line);
+                handler.handle(index, StudentImportRowDTO.builder()
+                        .username(field(fields, columns, "username"))
+                        .password(field(fields, columns, "password"))
+                        .fullName(field(fields, columns, "fullname"))
+                        .nameWithInitials(field(fields, columns, "namewithinitials"))
+                        .nic(field(fields, columns, "nic"))
+                        .gpa(parseGpa(field(fields, columns, "gpa")))
+                        .eligible(parseBoolean(field(fields, columns, "eligible")))
+                        .build(), null);
+            } catch (IllegalArgumentException e) {
+                handler.handle(index, null, e.getMessage());
+            }
+            index++;
+        }
+    }
+
+    // A JSON array of objects, read element by element with the streaming parser
+    static void parseJson(InputStream in, ObjectMapper objectMapper, RowHandler handler) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("JSON import must be an array of students");
+            }
+
+            int index = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    handler.handle(index, objectMapper.treeToValue(node, StudentImportRowDTO.class), null);
+                } catch (JsonProcessingException e) {
+                    handler.handle(index, null, "Invalid record: " + e.getOriginalMessage());
+                }
+                index++;
+            }
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer column = columns.get(name);
+        if (column == null || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Float parseGpa(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid gpa: " + value);
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "1" -> true;
+            case "false", "no", "n", "0" -> false;
+            default -> throw new IllegalArgumentException("Invalid eligible value: " + value);
+        };
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -1,20 +1,37 @@
 package com.mpma.dms.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mpma.dms.dto.BulkImportErrorDTO;
+import com.mpma.dms.dto.BulkImportResultDTO;
+import com.mpma.dms.dto.CertificateBatchReportDTO;
+import com.mpma.dms.dto.CertificateFilterDTO;
+import com.mpma.dms.dto.CertificateJobDTO;
+import com.mpma.dms.dto.CursorPageDTO;
+import com.mpma.dms.dto.StudentFilterDTO;
+import com.mpma.dms.dto.StudentImportRowDTO;
+import com.mpma.dms.dto.UserDTO;
+import com.mpma.dms.enums.UserType;
 import com.mpma.dms.service.StudentService;
-import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import jakarta.annotation.PostConstruct;
+import com.mpma.dms.mapper.StudentMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.Optional;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import java.util.stream.Collectors;
 
 import com.mpma.dms.dto.StudentDTO;
 import com.mpma.dms.entity.Student;
+import com.mpma.dms.repository.KeysetCursor;
 import com.mpma.dms.repository.StudentRepository;
 import org.springframework.stereotype.Service;
 
@@ -22,19 +39,99 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class StudentServiceImpl implements StudentService {
     private final StudentRepository studentRepository;
+    private final CertificateRenderer certificateRenderer;
+    private final CertificateCache certificateCache;
+    private final ObjectMapper objectMapper;
+    private final UserImporter userImporter;
+
+    private static final int STUDENT_BATCH_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 50;
+    // Records buffered from an import file before they are written in one transaction
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
+    // Certificates rendered at once by a bulk run (0 = twice the CPU count)
+    @Value("${certificate.bulk.max-in-flight:0}")
+    private int bulkMaxInFlight;
+
+    @PostConstruct
+    public void init() {
+        if (bulkMaxInFlight <= 0) {
+            bulkMaxInFlight = Runtime.getRuntime().availableProcessors() * 2;
+        }
+    }
 
     @Override
     public StudentDTO getStudentById(Long id) {
         Student student = studentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Student not found with ID: " + id));
-        return mapToDTO(student);
+        return StudentMapper.toDTO(student);
     }
 
     @Override
     public List<StudentDTO> getStudents() {
-        List<Student> student = studentRepository.findAll();
-        return student.stream()
-                .map(this::mapToDTO).toList();
+        return studentRepository.findAllSummaries();
+    }
+
+    // ✅ Streaming import: records are parsed one at a time and written IMPORT_CHUNK_SIZE at once
+    @Override
+    public BulkImportResultDTO importStudents(InputStream in, boolean json) throws IOException {
+        BulkImportResultDTO result = new BulkImportResultDTO(0, 0, 0, new ArrayList<>());
+        List<UserDTO> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<Integer> chunkRows = new ArrayList<>(IMPORT_CHUNK_SIZE);
+
+        StudentImportParser.RowHandler handler = (index, row, error) -> {
+            if (error != null) {
+                result.setRequested(result.getRequested() + 1);
+                userImporter.reject(result, index, null, error);
+                return;
+            }
+            chunk.add(toUserDTO(row));
+            chunkRows.add(index);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                userImporter.importBatch(chunk, chunkRows, result);
+                chunk.clear();
+                chunkRows.clear();
+            }
+        };
+
+        if (json) {
+            StudentImportParser.parseJson(in, objectMapper, handler);
+        } else {
+            StudentImportParser.parseCsv(in, handler);
+        }
+        if (!chunk.isEmpty()) {
+            userImporter.importBatch(chunk, chunkRows, result);
+        }
+
+        result.getErrors().sort(Comparator.comparingInt(BulkImportErrorDTO::getIndex));
+        return result;
+    }
+
+    private UserDTO toUserDTO(StudentImportRowDTO row) {
+        StudentDTO student = new StudentDTO(null, row.getFullName(), row.getNameWithInitials(), row.getNic(),
+                row.getGpa(), Boolean.TRUE.equals(row.getEligible()));
+        return new UserDTO(student, null, row.getUsername(), row.getPassword(), null, UserType.STUDENT);
+    }
+
+    @Override
+    public CursorPageDTO<StudentDTO> getStudentsPage(StudentFilterDTO filter) {
+        int limit = Math.max(1, Math.min(filter.getLimit(), MAX_PAGE_SIZE));
+        String sortKey = KeysetCursor.sortKey(filter.getSort(), filter.getDirection());
+        // One extra row tells us whether there is a next page
+        List<StudentDTO> rows = studentRepository.findStudentSummaries(filter, KeysetCursor.decode(filter.getCursor(), sortKey), limit + 1);
+        if (rows.size() <= limit) {
+            return new CursorPageDTO<>(rows, null);
+        }
+
+        List<StudentDTO> page = rows.subList(0, limit);
+        StudentDTO last = page.get(limit - 1);
+        String sortValue = switch (String.valueOf(filter.getSort())) {
+            case "fullName" -> Objects.toString(last.getFullName(), "");
+            case "gpa" -> String.valueOf(last.getGpa() != null ? last.getGpa() : 0f);
+            default -> null;
+        };
+        return new CursorPageDTO<>(page, new KeysetCursor(sortKey, sortValue, last.getId()).encode());
     }
 
     @Override
@@ -42,52 +139,107 @@ public class StudentServiceImpl implements StudentService {
         Optional<Student> studentOptional = studentRepository.findById(id);
         if(studentOptional.isPresent()){
             Student student = studentOptional.get();
-            String htmlContent = getHtmlFileAsString();
-            htmlContent = htmlContent.replace("[FULLNAME]", student.getFullName());
-            htmlContent = htmlContent.replace("[NIC]", student.getNic());
-            return convertHtmlToPdf(htmlContent);
+            return certificateCache.get(student, () -> certificateRenderer.render(student));
         }
         return new byte[0];
     }
 
-    private static byte[] convertHtmlToPdf(String htmlContent) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-        try {
-            // Use PdfRendererBuilder to render HTML content to PDF
-            PdfRendererBuilder builder = new PdfRendererBuilder();
-            builder.useFastMode();
-            builder.withHtmlContent(htmlContent, null);
-            builder.toStream(outputStream);
-            builder.run();
+    @Override
+    public CertificateJobDTO submitCertificate(Long id) {
+        Student student = studentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Student not found with ID: " + id));
+        return certificateRenderer.submit(student);
+    }
 
-            // Return the PDF as byte array
-            return outputStream.toByteArray();
+    @Override
+    public Optional<CertificateJobDTO> getCertificateJob(String jobId) {
+        return certificateRenderer.getJob(jobId);
+    }
 
-        } catch (Exception e) {
-            System.err.println("An error occurred while generating the PDF - " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
+    @Override
+    public Optional<byte[]> getCertificatePdf(String jobId) {
+        return certificateRenderer.getPdf(jobId);
     }
 
-    private String getHtmlFileAsString() throws IOException {
-        // Get the input stream for the file in resources/static/index.html
-        try (InputStream inputStream = StudentServiceImpl.class.getClassLoader()
-                .getResourceAsStream("static/index.html")) {
+    @Override
+    public CertificateBatchReportDTO writeCertificatesZip(CertificateFilterDTO filter, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        AtomicLong rendered = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<String> errors = new ArrayList<>();
+        CRC32 crc = new CRC32();
 
-            if (inputStream == null) {
-                throw new IOException("File not found in resources/static/index.html");
+        ZipOutputStream zip = new ZipOutputStream(out);
+        certificateRenderer.renderEach(certificateStudents(filter), bulkMaxInFlight, (student, pdf, error) -> {
+            if (error != null) {
+                if (failed.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                    errors.add("Student " + student.getId() + ": " + error.getMessage());
+                }
+                return;
             }
 
-            // Read all bytes and convert to String
-            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-        }
+            // PDF streams are already compressed, so entries are stored rather than deflated
+            crc.reset();
+            crc.update(pdf);
+            ZipEntry entry = new ZipEntry("certificate-" + student.getId() + ".pdf");
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(pdf.length);
+            entry.setCompressedSize(pdf.length);
+            entry.setCrc(crc.getValue());
+
+            zip.putNextEntry(entry);
+            zip.write(pdf);
+            zip.closeEntry();
+            rendered.incrementAndGet();
+        });
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        CertificateBatchReportDTO report = CertificateBatchReportDTO.builder()
+                .rendered(rendered.get())
+                .failed(failed.get())
+                .elapsedMillis(elapsedMillis)
+                .certificatesPerSecond(elapsedMillis > 0 ? rendered.get() * 1000.0 / elapsedMillis : rendered.get())
+                .errors(errors)
+                .build();
+
+        // Throughput summary goes in as the last entry, once everything is rendered
+        zip.putNextEntry(new ZipEntry("report.json"));
+        zip.write(objectMapper.writeValueAsBytes(report));
+        zip.closeEntry();
+        zip.finish();
+
+        return report;
     }
 
-    private StudentDTO mapToDTO(Student student) {
-        StudentDTO dto = new StudentDTO();
-        BeanUtils.copyProperties(student, dto);
-        return dto;
+    // Streams matching students in keyset-ordered batches instead of loading them all
+    private Iterator<Student> certificateStudents(CertificateFilterDTO filter) {
+        return new Iterator<>() {
+            private Iterator<Student> batch = Collections.emptyIterator();
+            private Long lastId = Long.MIN_VALUE;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (!batch.hasNext() && !exhausted) {
+                    List<Student> students = studentRepository.findCertificateBatch(
+                            lastId, filter.getEligible(), filter.getMinGpa(), filter.getMaxGpa(),
+                            PageRequest.ofSize(STUDENT_BATCH_SIZE));
+                    exhausted = students.size() < STUDENT_BATCH_SIZE;
+                    if (!students.isEmpty()) {
+                        lastId = students.get(students.size() - 1).getId();
+                    }
+                    batch = students.iterator();
+                }
+                return batch.hasNext();
+            }
+
+            @Override
+            public Student next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.next();
+            }
+        };
     }
 }
@@ -0,0 +1,62 @@
+package com.mpma.dms.service.impl;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Plain text for the search index. PDFs go through PDFBox; text-like formats are
+// decoded as UTF-8 (markup tags stripped). Everything else is indexed by name only.
+@Component
+public class TextExtractor {
+
+    private static final Set<String> TEXT_TYPES = Set.of("txt", "md", "csv", "json", "log");
+    private static final Set<String> MARKUP_TYPES = Set.of("html", "htm", "xml");
+
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+
+    // Text beyond this many characters per file is not indexed
+    @Value("${search.extract.max-chars:1000000}")
+    private int maxChars;
+
+    @Value("${search.extract.max-pdf-pages:200}")
+    private int maxPdfPages;
+
+    public boolean supports(String fileName) {
+        String extension = extension(fileName);
+        return extension.equals("pdf") || TEXT_TYPES.contains(extension) || MARKUP_TYPES.contains(extension);
+    }
+
+    public String extract(String fileName, InputStream in) throws IOException {
+        String extension = extension(fileName);
+        if (extension.equals("pdf")) {
+            return extractPdf(in);
+        }
+
+        String text = new String(in.readNBytes(maxChars), StandardCharsets.UTF_8);
+        return MARKUP_TYPES.contains(extension) ? TAG.matcher(text).replaceAll(" ") : text;
+    }
+
+    private String extractPdf(InputStream in) throws IOException {
+        // Large PDFs are buffered in a temp file rather than on the heap
+        try (PDDocument document = PDDocument.load(in, MemoryUsageSetting.setupMixed(16L * 1024 * 1024))) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setEndPage(maxPdfPages);
+            String text = stripper.getText(document);
+            return text.length() > maxChars ? text.substring(0, maxChars) : text;
+        }
+    }
+
+    private String extension(String fileName) {
+        int lastDot = fileName.lastIndexOf('.');
+        return lastDot != -1 ? fileName.substring(lastDot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,223 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.BlockTimingDTO;
+import com.mpma.dms.dto.UploadResultDTO;
+import com.mpma.dms.dto.UploadSessionDTO;
+import com.mpma.dms.exception.BadRequestException;
+import com.mpma.dms.exception.NotFoundException;
+import com.mpma.dms.exception.UploadOffsetException;
+import com.mpma.dms.service.StorageBackend;
+import com.mpma.dms.service.UploadSessionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Each chunk is cut into blocks of at most blockSize that are staged on the storage backend
+// as soon as they are read, so the committed offset only ever covers stored bytes. A broken
+// connection loses at most the block that was being read; the client asks for the offset and
+// resends from there. Sessions are held in memory and expire after ttlMinutes without a chunk.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    // Azure block blob limit; every chunk ends in its own (possibly short) block
+    private static final int MAX_BLOCKS = 50_000;
+
+    private final StorageBackend storageService;
+    private final MeterRegistry meterRegistry;
+
+    // Largest block staged at once, and the chunk size clients should aim for
+    @Value("${upload.session.block-size:8388608}")
+    private int blockSize;
+
+    // Idle sessions are discarded after this; keep it below Azure's seven days for uncommitted blocks
+    @Value("${upload.session.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${upload.session.max-sessions:1000}")
+    private int maxSessions;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        meterRegistry.gaugeMapSize("dms.upload.sessions", List.of(), sessions);
+    }
+
+    @Override
+    public UploadSessionDTO create(String pathWithFilename, long size) {
+        if (size < 0 || size > (long) blockSize * MAX_BLOCKS) {
+            throw new BadRequestException("Upload length must be between 0 and " + (long) blockSize * MAX_BLOCKS);
+        }
+        if (sessions.size() >= maxSessions) {
+            throw new RejectedExecutionException("Too many open upload sessions");
+        }
+
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), pathWithFilename, size);
+        sessions.put(session.sessionId, session);
+        return session.toDTO(ttlMinutes);
+    }
+
+    @Override
+    public Optional<UploadSessionDTO> getSession(String sessionId) {
+        return Optional.ofNullable(sessions.get(sessionId)).map(session -> session.toDTO(ttlMinutes));
+    }
+
+    @Override
+    public UploadSessionDTO append(String sessionId, long offset, InputStream chunk) throws IOException {
+        UploadSession session = require(sessionId);
+        // One writer per session; a retry racing the request it replaces gets the offset back
+        if (!session.lock.tryLock()) {
+            throw new UploadOffsetException("Another chunk is being written to this upload", session.offset);
+        }
+        try {
+            requireOpen(session);
+            if (offset != session.offset) {
+                throw new UploadOffsetException("Chunk must start at offset " + session.offset, session.offset);
+            }
+
+            byte[] block = new byte[(int) Math.min(blockSize, Math.max(session.size - session.offset, 1))];
+            while (session.offset < session.size) {
+                int read = chunk.readNBytes(block, 0, (int) Math.min(block.length, session.size - session.offset));
+                if (read == 0) {
+                    break;
+                }
+                if (session.blocks.size() == MAX_BLOCKS) {
+                    throw new BadRequestException("Too many chunks, send larger chunks");
+                }
+
+                int index = session.blocks.size();
+                long started = System.nanoTime();
+                storageService.stageBlock(session.path, session.sessionId, index, session.offset, block, read);
+                session.blocks.add(new BlockTimingDTO(index, read, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+                session.offset += read;
+                session.touchedAt = OffsetDateTime.now();
+            }
+
+            if (session.offset == session.size && chunk.read() != -1) {
+                throw new BadRequestException("Chunk runs past the upload length of " + session.size);
+            }
+            return session.toDTO(ttlMinutes);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Override
+    public UploadResultDTO complete(String sessionId) throws IOException {
+        UploadSession session = require(sessionId);
+        session.lock.lock();
+        try {
+            requireOpen(session);
+            if (session.offset != session.size) {
+                throw new UploadOffsetException("Upload is incomplete", session.offset);
+            }
+
+            try {
+                storageService.commitBlocks(session.path, session.sessionId, session.blocks.size(), session.size);
+            } catch (IOException e) {
+                // Staged data is gone (e.g. overwritten by another upload); the client has to start over
+                discard(session);
+                throw e;
+            }
+            sessions.remove(sessionId);
+            long millis = Duration.between(session.createdAt, OffsetDateTime.now()).toMillis();
+            return new UploadResultDTO(session.path, session.size, session.blocks.size(), millis, List.copyOf(session.blocks));
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Override
+    public void abort(String sessionId) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        session.lock.lock();
+        try {
+            discard(session);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    // Sessions with a chunk still being written are left for the next run
+    @Scheduled(fixedDelayString = "${upload.session.sweep-interval-ms:60000}")
+    public void expireSessions() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(ttlMinutes);
+        for (UploadSession session : sessions.values()) {
+            if (session.touchedAt.isBefore(cutoff) && session.lock.tryLock()) {
+                try {
+                    discard(session);
+                    log.info("Upload session {} for {} expired at offset {}", session.sessionId, session.path, session.offset);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to discard expired upload session {}", session.sessionId, e);
+                } finally {
+                    session.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private UploadSession require(String sessionId) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new NotFoundException("Upload session not found: " + sessionId);
+        }
+        return session;
+    }
+
+    // Completed, aborted or expired while this request waited for the lock
+    private void requireOpen(UploadSession session) {
+        if (sessions.get(session.sessionId) != session) {
+            throw new NotFoundException("Upload session not found: " + session.sessionId);
+        }
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.sessionId, session);
+        storageService.abortBlocks(session.path, session.sessionId);
+    }
+
+    // Mutable fields are only written while holding lock
+    private static final class UploadSession {
+        final String sessionId;
+        final String path;
+        final long size;
+        final OffsetDateTime createdAt = OffsetDateTime.now();
+        final List<BlockTimingDTO> blocks = new ArrayList<>();
+        final ReentrantLock lock = new ReentrantLock();
+        volatile long offset;
+        volatile OffsetDateTime touchedAt = createdAt;
+
+        UploadSession(String sessionId, String path, long size) {
+            this.sessionId = sessionId;
+            this.path = path;
+            this.size = size;
+        }
+
+        UploadSessionDTO toDTO(long ttlMinutes) {
+            return new UploadSessionDTO(sessionId, path, size, offset, touchedAt.plusMinutes(ttlMinutes));
+        }
+    }
+}
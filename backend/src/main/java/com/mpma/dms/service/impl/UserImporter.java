@@ -0,0 +1,151 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.BulkImportErrorDTO;
+import com.mpma.dms.dto.BulkImportResultDTO;
+import com.mpma.dms.dto.UserDTO;
+import com.mpma.dms.entity.Student;
+import com.mpma.dms.entity.User;
+import com.mpma.dms.enums.UserType;
+import com.mpma.dms.mapper.StudentMapper;
+import com.mpma.dms.mapper.UserMapper;
+import com.mpma.dms.repository.StudentRepository;
+import com.mpma.dms.repository.UserRepository;
+import com.mpma.dms.security.PasswordHasher;
+import com.mpma.dms.service.OnboardingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Shared write path for bulk user/student imports. Each batch is validated, checked
+// against existing usernames and written in one transaction, so with sequence IDs the
+// inserts go out as JDBC batches. If the batch insert fails, rows are retried one by
+// one so a single bad row does not fail its neighbours.
+@Component
+@RequiredArgsConstructor
+public class UserImporter {
+
+    private final UserRepository userRepository;
+    private final StudentRepository studentRepository;
+    private final PasswordHasher passwordHasher;
+    private final OnboardingService onboardingService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Keeps the response bounded for very large imports; "failed" still counts every row
+    @Value("${onboarding.bulk.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    // Imports users[i] as row firstIndex + i and adds the outcome to result
+    public void importBatch(List<UserDTO> users, int firstIndex, BulkImportResultDTO result) {
+        importBatch(users, IntStream.range(firstIndex, firstIndex + users.size()).boxed().toList(), result);
+    }
+
+    // Imports users[i] as row rowIndexes[i] and adds the outcome to result
+    public void importBatch(List<UserDTO> users, List<Integer> rowIndexes, BulkImportResultDTO result) {
+        result.setRequested(result.getRequested() + users.size());
+
+        Map<String, Integer> indexByUsername = new LinkedHashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            UserDTO user = users.get(i);
+            String error = validate(user);
+            if (error == null && indexByUsername.putIfAbsent(user.getUsername(), i) != null) {
+                error = "Duplicate username in request";
+            }
+            if (error != null) {
+                reject(result, rowIndexes.get(i), user != null ? user.getUsername() : null, error);
+            }
+        }
+        if (indexByUsername.isEmpty()) {
+            return;
+        }
+
+        for (String existing : userRepository.findExistingUsernames(indexByUsername.keySet())) {
+            reject(result, rowIndexes.get(indexByUsername.remove(existing)), existing, "Username already exists");
+        }
+
+        List<UserDTO> accepted = indexByUsername.values().stream().map(users::get).toList();
+        List<String> passwordHashes = hashPasswords(accepted);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(accepted, passwordHashes));
+            result.setCreated(result.getCreated() + accepted.size());
+        } catch (RuntimeException batchFailure) {
+            List<Integer> indexes = new ArrayList<>(indexByUsername.values());
+            for (int i = 0; i < accepted.size(); i++) {
+                List<UserDTO> row = List.of(accepted.get(i));
+                List<String> rowHash = List.of(passwordHashes.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(row, rowHash));
+                    result.setCreated(result.getCreated() + 1);
+                } catch (RuntimeException e) {
+                    reject(result, rowIndexes.get(indexes.get(i)), accepted.get(i).getUsername(), "Import failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void persist(List<UserDTO> users, List<String> passwordHashes) {
+        List<User> newUsers = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            newUsers.add(UserMapper.toEntity(users.get(i), passwordHashes.get(i)));
+        }
+        List<User> savedUsers = userRepository.saveAll(newUsers);
+
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            UserDTO userDTO = users.get(i);
+            if (userDTO.getStudent() != null && userDTO.getUserType() == UserType.STUDENT) {
+                students.add(StudentMapper.toEntity(userDTO.getStudent(), savedUsers.get(i)));
+            }
+        }
+        studentRepository.saveAll(students);
+
+        onboardingService.enqueue(savedUsers.stream().map(User::getId).toList());
+    }
+
+    // Already-hashed passwords (e.g. exported from another system) are kept as they are
+    private List<String> hashPasswords(List<UserDTO> users) {
+        List<String> plain = users.stream()
+                .map(UserDTO::getPassword)
+                .filter(password -> !passwordHasher.isHashed(password))
+                .toList();
+        List<String> hashed = passwordHasher.hashAll(plain);
+
+        List<String> result = new ArrayList<>(users.size());
+        int next = 0;
+        for (UserDTO user : users) {
+            result.add(passwordHasher.isHashed(user.getPassword()) ? user.getPassword() : hashed.get(next++));
+        }
+        return result;
+    }
+
+    private String validate(UserDTO user) {
+        if (user == null) {
+            return "Missing user";
+        }
+        if (user.getUsername() == null || user.getUsername().isBlank()) {
+            return "Username is required";
+        }
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return "Password is required";
+        }
+        if (user.getUserType() == null) {
+            return "User type is required";
+        }
+        return null;
+    }
+
+    // Records a failed row; only the first maxReportedErrors rows are listed
+    public void reject(BulkImportResultDTO result, int index, String username, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkImportErrorDTO(index, username, message));
+        }
+    }
+}
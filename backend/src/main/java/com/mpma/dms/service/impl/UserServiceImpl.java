@@ -1,19 +1,33 @@
 package com.mpma.dms.service.impl;
 
+import com.mpma.dms.dto.BulkImportErrorDTO;
+import com.mpma.dms.dto.BulkImportResultDTO;
+import com.mpma.dms.dto.CursorPageDTO;
 import com.mpma.dms.dto.StudentDTO;
 import com.mpma.dms.dto.UserDTO;
+import com.mpma.dms.dto.UserFilterDTO;
+import com.mpma.dms.dto.UserSummaryDTO;
 import com.mpma.dms.entity.Student;
 import com.mpma.dms.entity.User;
 import com.mpma.dms.enums.UserType;
 import com.mpma.dms.exception.AuthException;
+import com.mpma.dms.exception.BadRequestException;
+import com.mpma.dms.repository.KeysetCursor;
 import com.mpma.dms.repository.StudentRepository;
 import com.mpma.dms.repository.UserRepository;
 import com.mpma.dms.security.JwtUtil;
+import com.mpma.dms.security.PasswordHasher;
+import com.mpma.dms.service.OnboardingService;
 import com.mpma.dms.service.UserService;
+import com.mpma.dms.mapper.StudentMapper;
+import com.mpma.dms.mapper.UserMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 
@@ -23,45 +37,54 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final StudentRepository studentRepository;
-    private final AzureStorageService storageService;
-    @Override
-    public UserDTO createUser(UserDTO userDTO) {
-        User user = User.builder()
-                .id(userDTO.getId())
-                .userType(userDTO.getUserType())
-                .username(userDTO.getUsername())
-                .password(userDTO.getPassword())
-                .accessToken(userDTO.getAccessToken())
-                .build();
+    private final CertificateCache certificateCache;
+    private final PasswordHasher passwordHasher;
+    private final OnboardingService onboardingService;
+    private final UserImporter userImporter;
 
-        User savedUser = userRepository.save(user);
+    private static final int MAX_PAGE_SIZE = 500;
 
-        if (userDTO.getStudent() != null && userDTO.getUserType() == UserType.STUDENT) {
-            StudentDTO studentDTO = userDTO.getStudent();
+    // Users written per transaction during a bulk import
+    private static final int IMPORT_CHUNK_SIZE = 500;
+
+    @Value("${onboarding.bulk.max-users:10000}")
+    private int maxImportUsers;
 
-            Student student = Student.builder()
-                    .fullName(studentDTO.getFullName())
-                    .nameWithInitials(studentDTO.getNameWithInitials())
-                    .nic(studentDTO.getNic())
-                    .gpa(studentDTO.getGpa())
-                    .isEligible(studentDTO.isEligible())
-                    .user(savedUser) // Link the user, this sets the ID as well
-                    .build();
+    // ✅ User and student rows commit together; the default files are created after commit
+    @Override
+    @Transactional
+    public UserDTO createUser(UserDTO userDTO) {
+        User savedUser = userRepository.save(UserMapper.toEntity(userDTO, passwordHasher.hash(userDTO.getPassword())));
 
-            studentRepository.save(student);
+        if (userDTO.getStudent() != null && userDTO.getUserType() == UserType.STUDENT) {
+            studentRepository.save(StudentMapper.toEntity(userDTO.getStudent(), savedUser));
         }
 
-        createDefaultTextFiles(savedUser.getId().toString());
+        onboardingService.enqueue(List.of(savedUser.getId()));
 
-        return mapToDTO(savedUser);
+        return UserMapper.toDTO(savedUser);
     }
 
+    // ✅ Bulk onboarding: written in chunks of IMPORT_CHUNK_SIZE per transaction, failures reported per row
+    @Override
+    public BulkImportResultDTO importUsers(List<UserDTO> users) {
+        if (users.size() > maxImportUsers) {
+            throw new BadRequestException("At most " + maxImportUsers + " users per import");
+        }
+
+        BulkImportResultDTO result = new BulkImportResultDTO(0, 0, 0, new ArrayList<>());
+        for (int from = 0; from < users.size(); from += IMPORT_CHUNK_SIZE) {
+            userImporter.importBatch(users.subList(from, Math.min(from + IMPORT_CHUNK_SIZE, users.size())), from, result);
+        }
+        result.getErrors().sort(Comparator.comparingInt(BulkImportErrorDTO::getIndex));
+        return result;
+    }
 
     @Override
     public UserDTO getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
-        return mapToDTO(user);
+        return UserMapper.toDTO(user);
     }
 
     @Override
@@ -69,49 +92,43 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new AuthException("User not found with username: " + username));
 
-        if (!user.getPassword().equals(password)) {
+        if (!passwordHasher.matches(password, user.getPassword())) {
             throw new AuthException("Invalid password");
         }
 
-        String token = JwtUtil.generateToken(username);
-        user.setAccessToken(token); // optional: save if needed
-        userRepository.save(user);  // only if you're storing token in DB
+        // One-time upgrade of a legacy plaintext password
+        if (!passwordHasher.isHashed(user.getPassword())) {
+            user.setPassword(passwordHasher.hash(password));
+            userRepository.save(user);
+        }
 
-        return mapToDTO(user);
+        // ✅ Tokens are verified statelessly, so login no longer writes the token back to the users table
+        UserDTO userDTO = UserMapper.toDTO(user);
+        userDTO.setAccessToken(JwtUtil.generateToken(user));
+        return userDTO;
     }
 
     @Override
     public List<UserDTO> getUsers() {
-        List<User> user = userRepository.findAll();
+        List<User> user = userRepository.findAllWithStudent();
         return user.stream()
-                .map(this::mapToDTO).toList();
+                .map(UserMapper::toDTO).toList();
     }
 
-    private UserDTO mapToDTO(User user) {
-        UserDTO dto = new UserDTO();
-        BeanUtils.copyProperties(user, dto);
-
-        if (user.getStudent() != null) {
-            StudentDTO studentDTO = new StudentDTO();
-            BeanUtils.copyProperties(user.getStudent(), studentDTO);
-            dto.setStudent(studentDTO);
+    @Override
+    public CursorPageDTO<UserSummaryDTO> getUsersPage(UserFilterDTO filter) {
+        int limit = Math.max(1, Math.min(filter.getLimit(), MAX_PAGE_SIZE));
+        String sortKey = KeysetCursor.sortKey(filter.getSort(), filter.getDirection());
+        // One extra row tells us whether there is a next page
+        List<UserSummaryDTO> rows = userRepository.findUserSummaries(filter, KeysetCursor.decode(filter.getCursor(), sortKey), limit + 1);
+        if (rows.size() <= limit) {
+            return new CursorPageDTO<>(rows, null);
         }
 
-        return dto;
-    }
-
-    private void createDefaultTextFiles(String userId) {
-
-        String videos = userId + "/Photos/Videos.txt";
-        String music = userId + "/Music/Music.txt";
-        String pictures = userId + "/Pictures/Pictures.txt";
-        String documents = userId + "/Documents/Documents.txt";
-
-        String content = "This is default file for user " + userId;
-        storageService.uploadFileFromText(videos, content);
-        storageService.uploadFileFromText(music, content);
-        storageService.uploadFileFromText(pictures, content);
-        storageService.uploadFileFromText(documents, content);
+        List<UserSummaryDTO> page = rows.subList(0, limit);
+        UserSummaryDTO last = page.get(limit - 1);
+        String sortValue = "username".equals(filter.getSort()) ? last.getUsername() : null;
+        return new CursorPageDTO<>(page, new KeysetCursor(sortKey, sortValue, last.getId()).encode());
     }
 
     @Override
@@ -125,7 +142,7 @@ public class UserServiceImpl implements UserService {
         }
 
         if (userDTO.getPassword() != null) {
-            user.setPassword(userDTO.getPassword());
+            user.setPassword(passwordHasher.hash(userDTO.getPassword()));
         }
 
         // Handle student fields if user is a student
@@ -134,6 +151,12 @@ public class UserServiceImpl implements UserService {
             StudentDTO studentDTO = userDTO.getStudent();
 
             if (student != null) {
+                // Certificates print fullName and nic – drop the cached PDF for the old values
+                if ((studentDTO.getFullName() != null && !studentDTO.getFullName().equals(student.getFullName()))
+                        || (studentDTO.getNic() != null && !studentDTO.getNic().equals(student.getNic()))) {
+                    certificateCache.evict(student);
+                }
+
                 if (studentDTO.getFullName() != null) {
                     student.setFullName(studentDTO.getFullName());
                 }
@@ -156,7 +179,6 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(user);
-        return mapToDTO(updatedUser);
+        return UserMapper.toDTO(updatedUser);
     }
-
 }
@@ -0,0 +1,27 @@
+-- Schema as first deployed, when Hibernate created the tables itself.
+-- Databases created that way are baselined at this version and skip this script.
+
+create table if not exists users (
+    id           bigint generated by default as identity primary key,
+    username     varchar(255) not null unique,
+    password     varchar(255) not null,
+    access_token varchar(1024),
+    user_type    varchar(255)
+);
+
+create table if not exists student (
+    id                 bigint primary key references users (id),
+    full_name          varchar(255),
+    name_with_initials varchar(255),
+    nic                varchar(255),
+    gpa                real,
+    is_eligible        boolean not null default false
+);
+
+create table if not exists documents (
+    id            bigint generated by default as identity primary key,
+    student_id    varchar(255) not null,
+    document_name varchar(255) not null,
+    document_type varchar(255) not null,
+    document_url  varchar(255) not null
+);
@@ -0,0 +1,20 @@
+-- users.id now comes from a pooled sequence (allocationSize 100) so inserts can be batched.
+-- Start past every existing id, whichever end of the pool Hibernate hands out first.
+create sequence if not exists users_seq increment by 100;
+select setval('users_seq', (select coalesce(max(id), 0) + 100 from users), false);
+
+-- Outbox for post-registration work (default folder skeleton)
+create table if not exists onboarding_task (
+    id              bigint primary key,
+    user_id         bigint not null unique,
+    status          varchar(255) not null,
+    attempts        integer not null default 0,
+    next_attempt_at timestamp(6) with time zone not null,
+    last_error      varchar(1000)
+);
+
+create sequence if not exists onboarding_task_seq increment by 100;
+select setval('onboarding_task_seq', (select coalesce(max(id), 0) + 100 from onboarding_task), false);
+
+-- The poller looks up due tasks by status and due time
+create index if not exists idx_onboarding_task_due on onboarding_task (status, next_attempt_at);
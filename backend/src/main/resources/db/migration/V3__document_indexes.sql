@@ -0,0 +1,4 @@
+-- Per-student document views. id is the trailing column so keyset pages
+-- (where id > :cursor order by id) are read straight from the index.
+create index if not exists idx_documents_student_id on documents (student_id, id);
+create index if not exists idx_documents_student_type on documents (student_id, document_type, id);
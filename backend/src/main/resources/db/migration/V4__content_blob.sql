@@ -0,0 +1,11 @@
+-- Reference counts for content-addressed blobs (storage.dedup.enabled).
+-- User paths point at a blob by its SHA-256; a row whose count drops to zero is
+-- swept, together with its blob, once orphaned_at is older than the grace period.
+create table if not exists content_blob (
+    hash        varchar(64) primary key,
+    size        bigint not null,
+    ref_count   bigint not null,
+    orphaned_at timestamp(6) with time zone
+);
+
+create index if not exists idx_content_blob_orphaned on content_blob (orphaned_at) where ref_count <= 0;
@@ -0,0 +1,49 @@
+package com.mpma.dms.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The benchmarks only run under -Pbenchmark; call each one once here so a broken
+// setup (an unset cache limit, a renamed field) fails the normal build instead
+class BenchmarkSmokeTest {
+
+    @Test
+    void fileListingBenchmarkListsThePopulatedFolder() throws IOException {
+        FileListingBenchmark benchmark = new FileListingBenchmark();
+        ReflectionTestUtils.setField(benchmark, "files", 20);
+        benchmark.setUp();
+        try {
+            // 20 files plus 10 folders
+            assertThat(benchmark.listAllCold()).hasSize(30);
+            assertThat(benchmark.listAllCached()).hasSize(30);
+            assertThat(benchmark.firstPageCold().getItems()).hasSize(30);
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @Test
+    void certificateRenderingBenchmarkRendersAPdf() throws IOException {
+        CertificateRenderingBenchmark benchmark = new CertificateRenderingBenchmark();
+        benchmark.setUp();
+        try {
+            assertThat(new String(benchmark.render(), 0, 5)).isEqualTo("%PDF-");
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @Test
+    void jwtBenchmarkVerifiesItsOwnToken() {
+        JwtBenchmark benchmark = new JwtBenchmark();
+        benchmark.setUp();
+
+        assertThat(benchmark.generateToken()).isNotBlank();
+        assertThat(benchmark.verifyToken()).isEqualTo(benchmark.verifyTokenCached());
+        assertThat(benchmark.verifyToken().userId()).isEqualTo(42L);
+    }
+}
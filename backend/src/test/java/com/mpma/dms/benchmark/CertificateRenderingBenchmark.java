@@ -0,0 +1,53 @@
+package com.mpma.dms.benchmark;
+
+import com.mpma.dms.entity.Student;
+import com.mpma.dms.service.impl.CertificateRenderer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Certificate templating + PDF rendering as used by StudentServiceImpl.generateCertificate
+// (without the certificate cache in front of it).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CertificateRenderingBenchmark {
+
+    private CertificateRenderer renderer;
+    private Student student;
+
+    @Setup
+    public void setUp() throws IOException {
+        renderer = new CertificateRenderer(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(renderer, "renderThreads", 1);
+        ReflectionTestUtils.setField(renderer, "queueCapacity", 16);
+        ReflectionTestUtils.setField(renderer, "renderTimeoutSeconds", 60L);
+        ReflectionTestUtils.setField(renderer, "jobRetentionMinutes", 10L);
+        renderer.init();
+
+        student = Student.builder()
+                .id(42L)
+                .fullName("Kasun Perera & Sons")
+                .nameWithInitials("K. Perera")
+                .nic("200012345678")
+                .gpa(3.6f)
+                .isEligible(true)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderer.shutdown();
+    }
+
+    @Benchmark
+    public byte[] render() throws IOException {
+        return renderer.render(student);
+    }
+}
@@ -0,0 +1,84 @@
+package com.mpma.dms.benchmark;
+
+import com.mpma.dms.dto.DocumentDTO;
+import com.mpma.dms.dto.StudentDTO;
+import com.mpma.dms.dto.UserDTO;
+import com.mpma.dms.entity.Document;
+import com.mpma.dms.entity.Student;
+import com.mpma.dms.entity.User;
+import com.mpma.dms.enums.UserType;
+import com.mpma.dms.mapper.DocumentMapper;
+import com.mpma.dms.mapper.UserMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Entity -> DTO mapping: the previous reflective BeanUtils.copyProperties path
+// against the hand-written mappers now used by the service impls.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+    private User user;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(42L)
+                .username("student42")
+                .password("secret")
+                .accessToken("token")
+                .userType(UserType.STUDENT)
+                .build();
+        user.setStudent(Student.builder()
+                .id(42L)
+                .user(user)
+                .fullName("Kasun Perera")
+                .nameWithInitials("K. Perera")
+                .nic("200012345678")
+                .gpa(3.6f)
+                .isEligible(true)
+                .build());
+
+        document = Document.builder()
+                .id(7L)
+                .studentId("42")
+                .documentName("transcript.pdf")
+                .documentType("pdf")
+                .documentUrl("42/Documents/transcript.pdf")
+                .build();
+    }
+
+    @Benchmark
+    public UserDTO userBeanUtils() {
+        UserDTO dto = new UserDTO();
+        BeanUtils.copyProperties(user, dto);
+        StudentDTO studentDTO = new StudentDTO();
+        BeanUtils.copyProperties(user.getStudent(), studentDTO);
+        dto.setStudent(studentDTO);
+        return dto;
+    }
+
+    @Benchmark
+    public UserDTO userMapper() {
+        return UserMapper.toDTO(user);
+    }
+
+    @Benchmark
+    public DocumentDTO documentBeanUtils() {
+        DocumentDTO dto = new DocumentDTO();
+        BeanUtils.copyProperties(document, dto);
+        return dto;
+    }
+
+    @Benchmark
+    public DocumentDTO documentMapper() {
+        return DocumentMapper.toDTO(document);
+    }
+}
@@ -0,0 +1,108 @@
+package com.mpma.dms.benchmark;
+
+import com.mpma.dms.config.ExecutionMode;
+import com.mpma.dms.service.impl.FileListingCache;
+import com.mpma.dms.service.impl.LocalStorageService;
+import com.mpma.dms.service.impl.StorageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Concurrent upload + download "requests" against the local storage backend, each
+// with an emulated blob-storage round trip, run thread-per-request on a fixed pool
+// the size of Tomcat's default (200) versus one virtual thread per request.
+//
+//   mvn -Pbenchmark test -Djmh.include=ExecutionModeBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionModeBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    // Requests in flight at once
+    @Param({"1000"})
+    private int concurrentRequests;
+
+    // Emulated network latency per storage call
+    @Param({"10"})
+    private int roundTripMillis;
+
+    private Path rootDir;
+    private LocalStorageService storage;
+    private ExecutorService executor;
+    private byte[] content;
+
+    @Setup
+    public void setUp() throws IOException {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", String.valueOf("virtual".equals(mode)));
+        ExecutionMode executionMode = new ExecutionMode(environment);
+        executor = executionMode.newBlockingExecutor("bench-request-", PLATFORM_THREADS);
+
+        rootDir = Files.createTempDirectory("dms-execution-bench");
+        FileListingCache cache = new FileListingCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "maxItems", 200_000L);
+        ReflectionTestUtils.setField(cache, "maxItemsPerPrefix", 200_000L);
+        storage = new LocalStorageService(cache, new StorageMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(storage, "rootDir", rootDir.toString());
+        ReflectionTestUtils.setField(storage, "mapWindow", 8 * 1024 * 1024);
+        storage.init();
+
+        content = new byte[64 * 1024];
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        try (Stream<Path> walk = Files.walk(rootDir)) {
+            for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    // Time to complete one wave of concurrentRequests upload + download requests
+    @Benchmark
+    public long uploadThenDownload() throws Exception {
+        List<Future<Integer>> requests = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            String path = "bench/" + (i % 100) + "/file-" + i + ".bin";
+            requests.add(executor.submit(() -> {
+                Thread.sleep(roundTripMillis);
+                storage.uploadFileFromBytes(path, content);
+
+                Thread.sleep(roundTripMillis);
+                ByteArrayOutputStream out = new ByteArrayOutputStream(content.length);
+                storage.downloadFile(path, null, out);
+                return out.size();
+            }));
+        }
+
+        long bytes = 0;
+        for (Future<Integer> request : requests) {
+            bytes += request.get();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mpma.dms.benchmark;
+
+import com.mpma.dms.dto.FileInfoDTO;
+import com.mpma.dms.dto.FilePageDTO;
+import com.mpma.dms.service.impl.FileListingCache;
+import com.mpma.dms.service.impl.LocalStorageService;
+import com.mpma.dms.service.impl.StorageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// listUserFilesWithMetadata / listUserFilesPage result building against the
+// local-disk backend in a temp directory. "cold" disables the listing cache so
+// every call walks the folder and builds the DTOs; "cached" measures a cache hit.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileListingBenchmark {
+
+    private static final String PREFIX = "42/Documents/";
+
+    @Param({"100", "1000"})
+    private int files;
+
+    private Path rootDir;
+    private LocalStorageService cold;
+    private LocalStorageService cached;
+
+    @Setup
+    public void setUp() throws IOException {
+        rootDir = Files.createTempDirectory("dms-listing-bench");
+        cold = storage(0);
+        cached = storage(3600);
+
+        byte[] content = new byte[128];
+        for (int i = 0; i < files; i++) {
+            cold.uploadFileFromBytes(PREFIX + "file-" + i + ".pdf", content);
+        }
+        for (int i = 0; i < 10; i++) {
+            cold.uploadFileFromBytes(PREFIX + "folder-" + i + "/nested.txt", content);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(rootDir)) {
+            for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<FileInfoDTO> listAllCold() {
+        return cold.listUserFilesWithMetadata(PREFIX);
+    }
+
+    @Benchmark
+    public List<FileInfoDTO> listAllCached() {
+        return cached.listUserFilesWithMetadata(PREFIX);
+    }
+
+    @Benchmark
+    public FilePageDTO firstPageCold() {
+        return cold.listUserFilesPage(PREFIX, null, 50);
+    }
+
+    private LocalStorageService storage(long cacheTtlSeconds) throws IOException {
+        FileListingCache cache = new FileListingCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", cacheTtlSeconds);
+        ReflectionTestUtils.setField(cache, "maxItems", 200_000L);
+        ReflectionTestUtils.setField(cache, "maxItemsPerPrefix", 200_000L);
+
+        LocalStorageService storage = new LocalStorageService(cache, new StorageMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(storage, "rootDir", rootDir.toString());
+        ReflectionTestUtils.setField(storage, "mapWindow", 8 * 1024 * 1024);
+        storage.init();
+        return storage;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mpma.dms.benchmark;
+
+import com.mpma.dms.entity.User;
+import com.mpma.dms.enums.UserType;
+import com.mpma.dms.security.JwtUtil;
+import com.mpma.dms.security.TokenClaims;
+import com.mpma.dms.security.TokenClaimsCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issuing cost on the login path and verification cost per authenticated
+// request, with and without the claims cache in front of the signature check.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private User user;
+    private String token;
+    private TokenClaimsCache claimsCache;
+
+    @Setup
+    public void setUp() {
+        user = User.builder().id(42L).username("student42").userType(UserType.STUDENT).build();
+        token = JwtUtil.generateToken(user);
+
+        claimsCache = new TokenClaimsCache();
+        ReflectionTestUtils.setField(claimsCache, "maxEntries", 10_000);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public TokenClaims verifyToken() {
+        return JwtUtil.verifyToken(token);
+    }
+
+    @Benchmark
+    public TokenClaims verifyTokenCached() {
+        return claimsCache.get(token, JwtUtil::verifyToken);
+    }
+}
@@ -0,0 +1,72 @@
+package com.mpma.dms.benchmark;
+
+import com.mpma.dms.security.PasswordHasher;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Login storm against the password check: 64 request threads (our peak Tomcat
+// concurrency) all verifying BCrypt hashes through the bounded hashing pool.
+// Sample mode reports mean and p50/p99 latency over all attempts; the
+// accepted/rejected counters give login throughput and how much load was shed
+// with a fast 503. Rejected callers back off 50 ms before trying again.
+//
+//   mvn -Pbenchmark test -Djmh.include=LoginLoadBenchmark
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginLoadBenchmark {
+
+    private static final long REJECT_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // Hashing queue sizes to compare: small queue sheds early, large queue trades latency for fewer 503s
+    @Param({"16", "64"})
+    private int queueCapacity;
+
+    private PasswordHasher hasher;
+    private String storedHash;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long accepted;
+        public long rejected;
+    }
+
+    @Setup
+    public void setUp() {
+        hasher = new PasswordHasher();
+        ReflectionTestUtils.setField(hasher, "hashThreads", 0);
+        ReflectionTestUtils.setField(hasher, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(hasher, "timeoutSeconds", 10L);
+        ReflectionTestUtils.setField(hasher, "bcryptStrength", 10);
+        hasher.init();
+        storedHash = hasher.hash("correct horse battery staple");
+    }
+
+    @TearDown
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Benchmark
+    public boolean login(Outcome outcome) {
+        try {
+            boolean matches = hasher.matches("correct horse battery staple", storedHash);
+            outcome.accepted++;
+            return matches;
+        } catch (RejectedExecutionException e) {
+            // A client honouring Retry-After backs off instead of retrying in a tight loop
+            outcome.rejected++;
+            LockSupport.parkNanos(REJECT_BACKOFF_NANOS);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mpma.dms.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionModeTest {
+
+    @Test
+    void platformModeUsesNamedPlatformThreads() throws Exception {
+        ExecutionMode mode = new ExecutionMode(new MockEnvironment());
+        try (ExecutorService executor = mode.newBlockingExecutor("io-", 2)) {
+            Thread thread = executor.submit(Thread::currentThread).get();
+            assertThat(mode.isVirtual()).isFalse();
+            assertThat(thread.isVirtual()).isFalse();
+            assertThat(thread.getName()).startsWith("io-");
+        }
+    }
+
+    @Test
+    void virtualModeRunsEachTaskOnANamedVirtualThread() throws Exception {
+        ExecutionMode mode = new ExecutionMode(new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true"));
+        try (ExecutorService executor = mode.newBlockingExecutor("io-", 2)) {
+            Thread thread = executor.submit(Thread::currentThread).get();
+            assertThat(mode.isVirtual()).isTrue();
+            assertThat(thread.isVirtual()).isTrue();
+            assertThat(thread.getName()).startsWith("io-");
+        }
+    }
+}
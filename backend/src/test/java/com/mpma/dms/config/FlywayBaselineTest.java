@@ -0,0 +1,80 @@
+package com.mpma.dms.config;
+
+import com.mpma.dms.entity.User;
+import com.mpma.dms.enums.UserType;
+import com.mpma.dms.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Database created by Hibernate before migrations existed: no flyway_schema_history,
+// IDENTITY ids already handed out. Flyway baselines it at V1 and applies the rest, and
+// the migrated schema still validates against the entities.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({FlywayBaselineTest.LegacyDatabaseConfig.class, FlywayConfig.class})
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=validate")
+class FlywayBaselineTest {
+
+    private static final long LEGACY_MAX_USER_ID = 250;
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class LegacyDatabaseConfig {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline.sql")).execute(dataSource);
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.update("insert into users (username, password, user_type) values ('first', 'x', 'STUDENT')");
+            jdbc.update("insert into users (id, username, password, user_type) values (?, 'last', 'x', 'ADMIN')", LEGACY_MAX_USER_ID);
+            jdbc.update("insert into student (id, full_name, is_eligible) select id, 'First Student', true from users where username = 'first'");
+            jdbc.update("insert into documents (student_id, document_name, document_type, document_url) values ('1', 'a.pdf', 'PDF', 'u')");
+            return dataSource;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void baselinesAtV1AndAppliesLaterMigrations() {
+        Map<String, Object> baseline = jdbcTemplate.queryForMap(
+                "select version, type from flyway_schema_history where installed_rank = 1");
+        assertThat(baseline).containsEntry("version", "1").containsEntry("type", "BASELINE");
+        assertThat(jdbcTemplate.queryForList("select version from flyway_schema_history where success and version <> '1'", String.class))
+                .contains("2", "3");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from users", Long.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from documents", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void newUsersGetIdsAboveTheLegacyOnes() {
+        User created = userRepository.saveAndFlush(User.builder().username("new").password("x").userType(UserType.STUDENT).build());
+
+        assertThat(created.getId()).isGreaterThan(LEGACY_MAX_USER_ID);
+    }
+}
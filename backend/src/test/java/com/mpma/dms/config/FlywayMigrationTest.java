@@ -0,0 +1,53 @@
+package com.mpma.dms.config;
+
+import com.mpma.dms.EmbeddedPostgresConfig;
+import com.mpma.dms.entity.User;
+import com.mpma.dms.enums.UserType;
+import com.mpma.dms.repository.UserRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Fresh database: every migration runs and Hibernate validates the result against the entities
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, FlywayConfig.class})
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=validate")
+class FlywayMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void appliesAllMigrationsToAnEmptyDatabase() {
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().applied()).extracting(info -> info.getVersion().getVersion())
+                .startsWith("1", "2", "3");
+        assertThat(jdbcTemplate.queryForList("select indexname from pg_indexes where tablename = 'documents'", String.class))
+                .contains("idx_documents_student_id", "idx_documents_student_type");
+        assertThat(jdbcTemplate.queryForList("select indexname from pg_indexes where tablename = 'onboarding_task'", String.class))
+                .contains("idx_onboarding_task_due");
+    }
+
+    @Test
+    void usersTakeIdsFromTheSequence() {
+        User first = userRepository.saveAndFlush(User.builder().username("a").password("x").userType(UserType.ADMIN).build());
+        User second = userRepository.saveAndFlush(User.builder().username("b").password("x").userType(UserType.ADMIN).build());
+
+        assertThat(first.getId()).isPositive();
+        assertThat(second.getId()).isEqualTo(first.getId() + 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.mpma.dms.config;
+
+import com.mpma.dms.EmbeddedPostgresConfig;
+import com.mpma.dms.service.StorageBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Prometheus is scraped on the management port only, and the local backend reports
+// the same dms.storage.* meters as the Azure one
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.server.port=0",
+        "storage.backend=local",
+        "storage.local.root-dir=target/management-port-test/storage",
+        "search.index.dir=target/management-port-test/search-index",
+        "security.jwt.required=true"
+})
+@AutoConfigureObservability
+@Import(EmbeddedPostgresConfig.class)
+class ManagementPortTest {
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private StorageBackend storage;
+
+    @AfterAll
+    static void cleanUp() throws IOException {
+        FileSystemUtils.deleteRecursively(Path.of("target/management-port-test"));
+    }
+
+    @Test
+    void prometheusIsOnlyServedOnTheManagementPort() {
+        assertThat(managementPort).isNotEqualTo(serverPort);
+        assertThatThrownBy(() -> get(serverPort, "/actuator/prometheus"))
+                .isInstanceOf(HttpClientErrorException.NotFound.class);
+        assertThat(get(managementPort, "/actuator/prometheus")).contains("jvm_memory_used_bytes");
+    }
+
+    @Test
+    void localStorageCallsAreMetered() throws IOException {
+        storage.uploadFileFromText("metrics-user/a.txt", "hello");
+        storage.downloadFile("metrics-user/a.txt", null, new ByteArrayOutputStream());
+        storage.listUserFilesWithMetadata("metrics-user/");
+
+        String scrape = get(managementPort, "/actuator/prometheus");
+        assertThat(scrape)
+                .contains("dms_storage_operation_seconds_count{application=\"dms\",backend=\"local\",operation=\"upload\",outcome=\"success\"}")
+                .contains("operation=\"download\"")
+                .contains("operation=\"list\"")
+                .contains("dms_storage_bytes_sum{application=\"dms\",backend=\"local\",operation=\"download\"} 5.0");
+    }
+
+    private static String get(int port, String path) {
+        byte[] body = RestClient.create("http://localhost:" + port).get().uri(path).retrieve().body(byte[].class);
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,50 @@
+package com.mpma.dms.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebConfigTest {
+
+    @Test
+    void platformModeStreamsOnABoundedPool() throws Exception {
+        AsyncTaskExecutor executor = streamingExecutor(new MockEnvironment());
+        try {
+            assertThat(executor).isInstanceOfSatisfying(ThreadPoolTaskExecutor.class, pool -> {
+                assertThat(pool.getMaxPoolSize()).isEqualTo(4);
+                assertThat(pool.getQueueCapacity()).isEqualTo(8);
+            });
+            Thread thread = executor.submit(Thread::currentThread).get();
+            assertThat(thread.isVirtual()).isFalse();
+            assertThat(thread.getName()).startsWith("streaming-");
+        } finally {
+            ((ThreadPoolTaskExecutor) executor).shutdown();
+        }
+    }
+
+    @Test
+    void virtualModeStreamsEachResponseOnAVirtualThread() throws Exception {
+        AsyncTaskExecutor executor = streamingExecutor(
+                new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true"));
+
+        Thread thread = executor.submit(Thread::currentThread).get();
+
+        assertThat(thread.isVirtual()).isTrue();
+        assertThat(thread.getName()).startsWith("streaming-");
+    }
+
+    private static AsyncTaskExecutor streamingExecutor(MockEnvironment environment) {
+        WebConfig config = new WebConfig(new ExecutionMode(environment));
+        ReflectionTestUtils.setField(config, "streamingPoolSize", 4);
+        ReflectionTestUtils.setField(config, "streamingQueueCapacity", 8);
+        AsyncTaskExecutor executor = config.streamingTaskExecutor();
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.initialize();
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,193 @@
+package com.mpma.dms.controller;
+
+import com.mpma.dms.dto.FileMetadataDTO;
+import com.mpma.dms.service.FolderArchiveService;
+import com.mpma.dms.service.FolderDeleteService;
+import com.mpma.dms.service.PreviewService;
+import com.mpma.dms.service.SearchService;
+import com.mpma.dms.service.StorageBackend;
+import com.mpma.dms.service.UploadSessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FileControllerRangeTest {
+
+    private static final String PATH = "user-1/docs/report.txt";
+    private static final String URL = "/api/files/download/" + PATH;
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+    private static final String ETAG = "\"0x8DC1\"";
+    private static final OffsetDateTime LAST_MODIFIED = OffsetDateTime.of(2024, 5, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    private final StorageBackend storage = mock(StorageBackend.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileController controller = new FileController(storage, mock(FolderDeleteService.class), mock(SearchService.class),
+                mock(PreviewService.class), mock(UploadSessionService.class), mock(FolderArchiveService.class));
+        ReflectionTestUtils.setField(controller, "contentPrefix", "_content/");
+        ReflectionTestUtils.setField(controller, "previewPrefix", "_preview/");
+        ReflectionTestUtils.setField(controller, "certificateCachePrefix", "_certificate-cache/");
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        when(storage.getFileMetadata(PATH))
+                .thenReturn(new FileMetadataDTO(PATH, CONTENT.length, ETAG, "text/plain", LAST_MODIFIED));
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(2).write(CONTENT);
+            return null;
+        }).when(storage).downloadFile(eq(PATH), any(), any());
+        doAnswer(inv -> {
+            long offset = inv.getArgument(2);
+            long count = inv.getArgument(3);
+            inv.<OutputStream>getArgument(4).write(CONTENT, (int) offset, (int) count);
+            return null;
+        }).when(storage).downloadFileRange(eq(PATH), any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void fullDownloadAdvertisesRanges() throws Exception {
+        MvcResult result = mockMvc.perform(get(URL)).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws Exception {
+        MvcResult result = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=5-9")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().string("56789"));
+        verify(storage).downloadFileRange(eq(PATH), eq(ETAG), eq(5L), eq(5L), any());
+    }
+
+    @Test
+    void suffixRangeReadsTheTail() throws Exception {
+        MvcResult result = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=-4")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 16-19/20"))
+                .andExpect(content().string("ghij"));
+    }
+
+    @Test
+    void multipleRangesAreMultipartByteranges() throws Exception {
+        MvcResult result = mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-1,10-12")).andReturn();
+
+        MvcResult dispatched = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andReturn();
+        MediaType contentType = MediaType.parseMediaType(dispatched.getResponse().getContentType());
+        assertThat(contentType.isCompatibleWith(MediaType.parseMediaType("multipart/byteranges"))).isTrue();
+        String boundary = contentType.getParameter("boundary");
+
+        String body = dispatched.getResponse().getContentAsString(StandardCharsets.US_ASCII);
+        assertThat(body).isEqualTo(
+                "\r\n--" + boundary + "\r\n"
+                        + "Content-Type: text/plain\r\n"
+                        + "Content-Range: bytes 0-1/20\r\n\r\n"
+                        + "01"
+                        + "\r\n--" + boundary + "\r\n"
+                        + "Content-Type: text/plain\r\n"
+                        + "Content-Range: bytes 10-12/20\r\n\r\n"
+                        + "abc"
+                        + "\r\n--" + boundary + "--\r\n");
+    }
+
+    @Test
+    void unsatisfiableRangeIs416() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=20-25"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+    }
+
+    @Test
+    void overlappingRangesLargerThanTheFileAre416() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-15,5-19"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+        verify(storage, never()).downloadFileRange(any(), any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void ifRangeWithCurrentETagHonoursTheRange() throws Exception {
+        MvcResult result = mockMvc.perform(get(URL)
+                .header(HttpHeaders.RANGE, "bytes=0-3")
+                .header(HttpHeaders.IF_RANGE, ETAG)).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("0123"));
+    }
+
+    @Test
+    void ifRangeWithStaleETagSendsTheWholeFile() throws Exception {
+        MvcResult result = mockMvc.perform(get(URL)
+                .header(HttpHeaders.RANGE, "bytes=0-3")
+                .header(HttpHeaders.IF_RANGE, "\"0x8DC0\"")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void ifRangeWithWeakETagSendsTheWholeFile() throws Exception {
+        MvcResult result = mockMvc.perform(get(URL)
+                .header(HttpHeaders.RANGE, "bytes=0-3")
+                .header(HttpHeaders.IF_RANGE, "W/" + ETAG)).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ifRangeWithDateComparesLastModified() throws Exception {
+        String current = DateTimeFormatter.RFC_1123_DATE_TIME.format(LAST_MODIFIED);
+        String older = DateTimeFormatter.RFC_1123_DATE_TIME.format(LAST_MODIFIED.minusHours(1));
+
+        MvcResult matching = mockMvc.perform(get(URL)
+                .header(HttpHeaders.RANGE, "bytes=0-3")
+                .header(HttpHeaders.IF_RANGE, current)).andReturn();
+        mockMvc.perform(asyncDispatch(matching)).andExpect(status().isPartialContent());
+
+        MvcResult stale = mockMvc.perform(get(URL)
+                .header(HttpHeaders.RANGE, "bytes=0-3")
+                .header(HttpHeaders.IF_RANGE, older)).andReturn();
+        mockMvc.perform(asyncDispatch(stale)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,84 @@
+package com.mpma.dms.controller;
+
+import com.mpma.dms.exception.GlobalExceptionHandler;
+import com.mpma.dms.service.FolderArchiveService;
+import com.mpma.dms.service.FolderDeleteService;
+import com.mpma.dms.service.PreviewService;
+import com.mpma.dms.service.SearchService;
+import com.mpma.dms.service.StorageBackend;
+import com.mpma.dms.service.UploadSessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// User folders share the container with dedup content, previews and the certificate spill
+class FileControllerReservedPrefixTest {
+
+    private final StorageBackend storage = mock(StorageBackend.class);
+    private final UploadSessionService uploadSessions = mock(UploadSessionService.class);
+    private final FolderDeleteService folderDeletes = mock(FolderDeleteService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        FileController controller = new FileController(storage, folderDeletes, mock(SearchService.class),
+                mock(PreviewService.class), uploadSessions, mock(FolderArchiveService.class));
+        ReflectionTestUtils.setField(controller, "contentPrefix", "_content/");
+        ReflectionTestUtils.setField(controller, "previewPrefix", "_preview/");
+        ReflectionTestUtils.setField(controller, "certificateCachePrefix", "_certificate-cache/");
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void rejectsWritesIntoReservedPrefixes() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "x", "text/plain", "evil".getBytes());
+
+        mockMvc.perform(multipart("/api/files/upload/_content/0123abcd").file(file))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/files/uploads/_preview/user-1/a.pdf.jpg").header("Upload-Length", "4"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/files/delete/_certificate-cache/42.pdf"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/files/delete-folder/_content/"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(storage, uploadSessions, folderDeletes);
+    }
+
+    @Test
+    void rejectsReadsOfReservedPrefixes() throws Exception {
+        mockMvc.perform(get("/api/files/download/_content/0123abcd")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/files/list/_preview")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/files/list-page/_certificate-cache")).andExpect(status().isBadRequest());
+
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void rejectsFoldersThatLeaveTheUserFolder() throws Exception {
+        mockMvc.perform(get("/api/files/list/user-1").param("folder", "../_content"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void ordinaryUserFoldersAreServed() throws Exception {
+        mockMvc.perform(get("/api/files/list/user-1").param("folder", "docs"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/files/list/content")).andExpect(status().isOk());
+    }
+}
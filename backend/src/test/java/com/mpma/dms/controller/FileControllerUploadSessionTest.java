@@ -0,0 +1,97 @@
+package com.mpma.dms.controller;
+
+import com.mpma.dms.dto.UploadSessionDTO;
+import com.mpma.dms.exception.GlobalExceptionHandler;
+import com.mpma.dms.exception.UploadOffsetException;
+import com.mpma.dms.service.FolderArchiveService;
+import com.mpma.dms.service.FolderDeleteService;
+import com.mpma.dms.service.PreviewService;
+import com.mpma.dms.service.SearchService;
+import com.mpma.dms.service.StorageBackend;
+import com.mpma.dms.service.UploadSessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Clients resume from the Upload-Offset header, on success and on a 409 alike
+class FileControllerUploadSessionTest {
+
+    private static final String ID = "session-1";
+
+    private final UploadSessionService uploadSessions = mock(UploadSessionService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        FileController controller = new FileController(mock(StorageBackend.class), mock(FolderDeleteService.class),
+                mock(SearchService.class), mock(PreviewService.class), uploadSessions, mock(FolderArchiveService.class));
+        ReflectionTestUtils.setField(controller, "contentPrefix", "_content/");
+        ReflectionTestUtils.setField(controller, "previewPrefix", "_preview/");
+        ReflectionTestUtils.setField(controller, "certificateCachePrefix", "_certificate-cache/");
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        when(uploadSessions.getSession(ID)).thenReturn(Optional.of(session(8)));
+    }
+
+    private static UploadSessionDTO session(long offset) {
+        return new UploadSessionDTO(ID, "user-1/big.bin", 20, offset, null);
+    }
+
+    @Test
+    void createAndChunkReportOffset() throws Exception {
+        when(uploadSessions.create("user-1/big.bin", 20)).thenReturn(session(0));
+        when(uploadSessions.append(eq(ID), eq(8L), any(InputStream.class))).thenReturn(session(12));
+
+        mockMvc.perform(post("/api/files/uploads/user-1/big.bin").header("Upload-Length", "20"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/files/upload-sessions/" + ID))
+                .andExpect(header().string("Upload-Offset", "0"));
+        mockMvc.perform(patch("/api/files/upload-sessions/" + ID).header("Upload-Offset", "8").content(new byte[4]))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Upload-Offset", "12"));
+        mockMvc.perform(get("/api/files/upload-sessions/" + ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Upload-Offset", "8"))
+                .andExpect(header().string("Upload-Length", "20"));
+    }
+
+    @Test
+    void offsetMismatchIsConflictWithCommittedOffset() throws Exception {
+        when(uploadSessions.append(eq(ID), eq(0L), any(InputStream.class)))
+                .thenThrow(new UploadOffsetException("Chunk must start at offset 8", 8));
+
+        mockMvc.perform(patch("/api/files/upload-sessions/" + ID).header("Upload-Offset", "0").content(new byte[4]))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Upload-Offset", "8"));
+    }
+
+    @Test
+    void incompleteUploadIsConflictAndUnknownSessionIsNotFound() throws Exception {
+        when(uploadSessions.complete(ID)).thenThrow(new UploadOffsetException("Upload is incomplete", 8));
+
+        mockMvc.perform(post("/api/files/upload-sessions/" + ID + "/complete"))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Upload-Offset", "8"));
+        mockMvc.perform(patch("/api/files/upload-sessions/missing").header("Upload-Offset", "0").content(new byte[1]))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/files/upload-sessions/missing"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,18 @@
+package com.mpma.dms.mapper;
+
+import com.mpma.dms.dto.DocumentDTO;
+import com.mpma.dms.entity.Document;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentMapperTest {
+
+    @Test
+    void toDTOCopiesEveryField() {
+        Document document = new Document(5L, "12", "transcript.pdf", "pdf", "12/transcript.pdf");
+
+        assertThat(DocumentMapper.toDTO(document))
+                .isEqualTo(new DocumentDTO(5L, "12", "transcript.pdf", "pdf", "12/transcript.pdf"));
+    }
+}
@@ -0,0 +1,43 @@
+package com.mpma.dms.mapper;
+
+import com.mpma.dms.dto.StudentDTO;
+import com.mpma.dms.entity.Student;
+import com.mpma.dms.entity.User;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentMapperTest {
+
+    @Test
+    void toDTOCopiesEveryField() {
+        Student student = Student.builder()
+                .id(12L)
+                .fullName("Kamal Perera")
+                .nameWithInitials("K. Perera")
+                .nic("200012345678")
+                .gpa(3.7f)
+                .isEligible(true)
+                .user(User.builder().id(12L).build())
+                .build();
+
+        assertThat(StudentMapper.toDTO(student))
+                .isEqualTo(new StudentDTO(12L, "Kamal Perera", "K. Perera", "200012345678", 3.7f, true));
+    }
+
+    @Test
+    void toEntityLinksTheUserAndLeavesTheIdToMapsId() {
+        User user = User.builder().id(12L).username("kamal").build();
+        StudentDTO dto = new StudentDTO(99L, "Kamal Perera", "K. Perera", "200012345678", null, false);
+
+        Student student = StudentMapper.toEntity(dto, user);
+
+        assertThat(student.getId()).isNull();
+        assertThat(student.getUser()).isSameAs(user);
+        assertThat(student.getFullName()).isEqualTo("Kamal Perera");
+        assertThat(student.getNameWithInitials()).isEqualTo("K. Perera");
+        assertThat(student.getNic()).isEqualTo("200012345678");
+        assertThat(student.getGpa()).isNull();
+        assertThat(student.isEligible()).isFalse();
+    }
+}
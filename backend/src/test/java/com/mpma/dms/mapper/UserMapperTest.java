@@ -0,0 +1,42 @@
+package com.mpma.dms.mapper;
+
+import com.mpma.dms.dto.UserDTO;
+import com.mpma.dms.entity.User;
+import com.mpma.dms.enums.UserType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserMapperTest {
+
+    @Test
+    void toDTODoesNotExposeCredentials() {
+        User user = User.builder()
+                .id(7L)
+                .username("kamal")
+                .password("$2a$10$abcdefghijklmnopqrstuv")
+                .accessToken("stale-token")
+                .userType(UserType.STUDENT)
+                .build();
+
+        UserDTO dto = UserMapper.toDTO(user);
+
+        assertThat(dto.getId()).isEqualTo(7L);
+        assertThat(dto.getUsername()).isEqualTo("kamal");
+        assertThat(dto.getPassword()).isNull();
+        assertThat(dto.getAccessToken()).isNull();
+    }
+
+    @Test
+    void toEntityIgnoresClientIdAndToken() {
+        UserDTO dto = new UserDTO(null, 7L, "kamal", "secret", "forged-token", UserType.STUDENT);
+
+        User user = UserMapper.toEntity(dto, "$2a$10$hash");
+
+        assertThat(user.getId()).isNull();
+        assertThat(user.getAccessToken()).isNull();
+        assertThat(user.getUsername()).isEqualTo("kamal");
+        assertThat(user.getPassword()).isEqualTo("$2a$10$hash");
+        assertThat(user.getUserType()).isEqualTo(UserType.STUDENT);
+    }
+}
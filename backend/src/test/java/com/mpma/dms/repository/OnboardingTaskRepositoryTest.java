@@ -0,0 +1,97 @@
+package com.mpma.dms.repository;
+
+import com.mpma.dms.EmbeddedPostgresConfig;
+import com.mpma.dms.entity.OnboardingTask;
+import com.mpma.dms.enums.JobStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+class OnboardingTaskRepositoryTest {
+
+    private static final Set<JobStatus> CLAIMABLE = EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING);
+
+    private final OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @Autowired
+    private OnboardingTaskRepository taskRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void findsDueQueuedTasksAndExpiredLeasesInIdOrder() {
+        long dueQueued = task(1L, JobStatus.QUEUED, now.minusSeconds(5));
+        long expiredLease = task(2L, JobStatus.RUNNING, now.minusSeconds(1));
+        task(3L, JobStatus.QUEUED, now.plusMinutes(5));      // backing off
+        task(4L, JobStatus.RUNNING, now.plusMinutes(5));     // leased
+        task(5L, JobStatus.COMPLETED, now.minusMinutes(5));
+        task(6L, JobStatus.FAILED, now.minusMinutes(5));
+        long dueNow = task(7L, JobStatus.QUEUED, now);
+
+        assertThat(taskRepository.findDueIds(CLAIMABLE, now, PageRequest.of(0, 10)))
+                .containsExactly(dueQueued, expiredLease, dueNow);
+        assertThat(taskRepository.findDueIds(CLAIMABLE, now, PageRequest.of(0, 2)))
+                .containsExactly(dueQueued, expiredLease);
+    }
+
+    @Test
+    void claimLeasesTheTaskOnce() {
+        long id = task(1L, JobStatus.QUEUED, now.minusSeconds(1));
+        OffsetDateTime leaseUntil = now.plusMinutes(5);
+
+        assertThat(taskRepository.claim(id, CLAIMABLE, now, leaseUntil)).isEqualTo(1);
+        // A second worker racing for the same task loses: the lease is in the future
+        assertThat(taskRepository.claim(id, CLAIMABLE, now, leaseUntil)).isZero();
+
+        entityManager.clear();
+        OnboardingTask claimed = taskRepository.findById(id).orElseThrow();
+        assertThat(claimed.getStatus()).isEqualTo(JobStatus.RUNNING);
+        assertThat(claimed.getAttempts()).isEqualTo(1);
+        assertThat(claimed.getNextAttemptAt().toInstant()).isEqualTo(leaseUntil.toInstant());
+    }
+
+    @Test
+    void expiredLeaseCanBeClaimedAgain() {
+        long id = task(1L, JobStatus.QUEUED, now.minusSeconds(1));
+        assertThat(taskRepository.claim(id, CLAIMABLE, now, now.plusMinutes(5))).isEqualTo(1);
+
+        OffsetDateTime later = now.plusMinutes(6);
+        assertThat(taskRepository.claim(id, CLAIMABLE, later, later.plusMinutes(5))).isEqualTo(1);
+
+        entityManager.clear();
+        assertThat(taskRepository.findById(id).orElseThrow().getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void finishedAndFutureTasksAreNotClaimed() {
+        long completed = task(1L, JobStatus.COMPLETED, now.minusMinutes(1));
+        long failed = task(2L, JobStatus.FAILED, now.minusMinutes(1));
+        long backingOff = task(3L, JobStatus.QUEUED, now.plusMinutes(1));
+
+        assertThat(taskRepository.claim(completed, CLAIMABLE, now, now.plusMinutes(5))).isZero();
+        assertThat(taskRepository.claim(failed, CLAIMABLE, now, now.plusMinutes(5))).isZero();
+        assertThat(taskRepository.claim(backingOff, CLAIMABLE, now, now.plusMinutes(5))).isZero();
+    }
+
+    private long task(long userId, JobStatus status, OffsetDateTime nextAttemptAt) {
+        OnboardingTask task = OnboardingTask.builder().userId(userId).status(status).nextAttemptAt(nextAttemptAt).build();
+        long id = entityManager.persistAndFlush(task).getId();
+        entityManager.clear();
+        return id;
+    }
+}
@@ -0,0 +1,120 @@
+package com.mpma.dms.repository;
+
+import com.mpma.dms.EmbeddedPostgresConfig;
+import com.mpma.dms.dto.CursorPageDTO;
+import com.mpma.dms.dto.StudentDTO;
+import com.mpma.dms.dto.StudentFilterDTO;
+import com.mpma.dms.entity.Student;
+import com.mpma.dms.entity.User;
+import com.mpma.dms.enums.UserType;
+import com.mpma.dms.exception.BadRequestException;
+import com.mpma.dms.service.impl.StudentServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfig.class)
+class StudentKeysetPagingTest {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private StudentServiceImpl studentService;
+
+    private final List<StudentDTO> all = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        studentService = new StudentServiceImpl(studentRepository, null, null, null, null);
+        // Duplicate names and gpas (and nulls) so pages split inside runs of equal sort values
+        String[] names = {"Nimal", "Amara", null, "Kamal", "Amara", "Sunil", "Nimal", null, "Bandara", "Amara"};
+        Float[] gpas = {3.2f, 3.8f, 2.9f, null, 3.2f, 3.8f, 3.2f, 3.5f, null, 2.1f};
+        for (int i = 0; i < names.length; i++) {
+            User user = User.builder().username("student" + i).password("x").userType(UserType.STUDENT).build();
+            entityManager.persist(user);
+            Student student = Student.builder().user(user).fullName(names[i]).nameWithInitials("S" + i)
+                    .nic("NIC" + i).gpa(gpas[i]).isEligible(true).build();
+            entityManager.persist(student);
+            all.add(new StudentDTO(user.getId(), names[i], "S" + i, "NIC" + i, gpas[i], true));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void walksEveryOrderingWithoutGapsOrRepeats() {
+        Comparator<StudentDTO> byId = Comparator.comparing(StudentDTO::getId);
+        Comparator<StudentDTO> byName = Comparator.comparing(s -> s.getFullName() != null ? s.getFullName() : "");
+        Comparator<StudentDTO> byGpa = Comparator.comparing(s -> s.getGpa() != null ? s.getGpa() : 0f);
+
+        assertWalk("id", "asc", byId);
+        assertWalk("id", "desc", byId.reversed());
+        assertWalk("fullName", "asc", byName.thenComparing(byId));
+        assertWalk("fullName", "desc", byName.thenComparing(byId).reversed());
+        assertWalk("gpa", "asc", byGpa.thenComparing(byId));
+        assertWalk("gpa", "desc", byGpa.thenComparing(byId).reversed());
+    }
+
+    @Test
+    void rejectsCursorFromAnotherSort() {
+        StudentFilterDTO byName = filter("fullName", "asc", null);
+        String cursor = studentService.getStudentsPage(byName).getNextCursor();
+
+        assertThatThrownBy(() -> studentService.getStudentsPage(filter("gpa", "asc", cursor)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> studentService.getStudentsPage(filter("fullName", "desc", cursor)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        String noValue = new KeysetCursor(KeysetCursor.sortKey("gpa", "asc"), null, 5).encode();
+        String notANumber = new KeysetCursor(KeysetCursor.sortKey("gpa", "asc"), "abc", 5).encode();
+
+        assertThatThrownBy(() -> studentService.getStudentsPage(filter("gpa", "asc", noValue)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> studentService.getStudentsPage(filter("gpa", "asc", notANumber)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> studentService.getStudentsPage(filter("id", "asc", "not a cursor!")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private void assertWalk(String sort, String direction, Comparator<StudentDTO> expectedOrder) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<StudentDTO> page = studentService.getStudentsPage(filter(sort, direction, cursor));
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(3);
+            page.getItems().forEach(s -> seen.add(s.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<Long> expected = all.stream().sorted(expectedOrder).map(StudentDTO::getId).toList();
+        assertThat(seen).as(sort + " " + direction).containsExactlyElementsOf(expected);
+    }
+
+    private static StudentFilterDTO filter(String sort, String direction, String cursor) {
+        StudentFilterDTO filter = new StudentFilterDTO();
+        filter.setSort(sort);
+        filter.setDirection(direction);
+        filter.setCursor(cursor);
+        filter.setLimit(3);
+        return filter;
+    }
+}
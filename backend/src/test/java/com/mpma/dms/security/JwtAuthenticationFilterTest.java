@@ -0,0 +1,66 @@
+package com.mpma.dms.security;
+
+import com.mpma.dms.entity.User;
+import com.mpma.dms.enums.UserType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The principal comes from the token alone; no repository is wired in
+class JwtAuthenticationFilterTest {
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        TokenClaimsCache claimsCache = new TokenClaimsCache();
+        ReflectionTestUtils.setField(claimsCache, "maxEntries", 10);
+        filter = new JwtAuthenticationFilter(claimsCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenAuthenticatesWithItsClaims() throws Exception {
+        User user = User.builder().id(42L).username("kamal").userType(UserType.ADMIN).build();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(bearer(JwtUtil.generateToken(user)), new MockHttpServletResponse(), chain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        TokenClaims claims = (TokenClaims) authentication.getPrincipal();
+        assertThat(claims.userId()).isEqualTo(42L);
+        assertThat(claims.username()).isEqualTo("kamal");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void invalidTokenContinuesUnauthenticated() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(bearer("not-a-jwt"), new MockHttpServletResponse(), chain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/students");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
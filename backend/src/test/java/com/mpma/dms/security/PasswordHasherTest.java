@@ -0,0 +1,97 @@
+package com.mpma.dms.security;
+
+import com.mpma.dms.exception.BadRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// One hashing thread, one queued task, and the lowest BCrypt strength to keep it quick
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @BeforeEach
+    void setUp() {
+        hasher = new PasswordHasher();
+        ReflectionTestUtils.setField(hasher, "hashThreads", 1);
+        ReflectionTestUtils.setField(hasher, "queueCapacity", 1);
+        ReflectionTestUtils.setField(hasher, "timeoutSeconds", 10L);
+        ReflectionTestUtils.setField(hasher, "bcryptStrength", 4);
+        hasher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void hashedPasswordMatchesOnlyItself() {
+        String hash = hasher.hash("secret");
+
+        assertThat(hasher.isHashed(hash)).isTrue();
+        assertThat(hasher.matches("secret", hash)).isTrue();
+        assertThat(hasher.matches("Secret", hash)).isFalse();
+    }
+
+    @Test
+    void plaintextPasswordsFromBeforeHashingStillMatch() {
+        assertThat(hasher.isHashed("secret")).isFalse();
+        assertThat(hasher.matches("secret", "secret")).isTrue();
+        assertThat(hasher.matches("secret", "other")).isFalse();
+        assertThat(hasher.matches(null, "secret")).isFalse();
+    }
+
+    @Test
+    void hashAllKeepsInputOrder() {
+        List<String> hashes = hasher.hashAll(List.of("one", "two", "three"));
+
+        assertThat(hashes).hasSize(3);
+        assertThat(hasher.matches("one", hashes.get(0))).isTrue();
+        assertThat(hasher.matches("two", hashes.get(1))).isTrue();
+        assertThat(hasher.matches("three", hashes.get(2))).isTrue();
+    }
+
+    @Test
+    void emptyPasswordIsRejected() {
+        assertThatThrownBy(() -> hasher.hash("")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> hasher.hashAll(List.of("one", ""))).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void fullQueueRejectsImmediately() throws Exception {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(hasher, "hashExecutor");
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Occupy the only thread and the only queue slot
+        executor.execute(() -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CountDownLatch drained = new CountDownLatch(1);
+        executor.execute(drained::countDown);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> hasher.hash("secret")).isInstanceOf(RejectedExecutionException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1000);
+
+        release.countDown();
+        assertThat(drained.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(hasher.matches("secret", hasher.hash("secret"))).isTrue();
+    }
+}
@@ -0,0 +1,88 @@
+package com.mpma.dms.security;
+
+import com.mpma.dms.enums.UserType;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenClaimsCacheTest {
+
+    private TokenClaimsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TokenClaimsCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+    }
+
+    @Test
+    void verifiedTokenIsServedFromTheCache() {
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, TokenClaims> verifier = counting(verifications, validFor(60_000));
+
+        TokenClaims first = cache.get("token-a", verifier);
+        TokenClaims second = cache.get("token-a", verifier);
+
+        assertThat(verifications).hasValue(1);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void expiredTokenIsVerifiedAgain() {
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, TokenClaims> verifier = counting(verifications, validFor(-1));
+
+        cache.get("token-a", verifier);
+        cache.get("token-a", verifier);
+
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void leastRecentlyUsedTokenIsEvictedPastTheLimit() {
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, TokenClaims> verifier = counting(verifications, validFor(60_000));
+
+        cache.get("token-a", verifier);
+        cache.get("token-b", verifier);
+        cache.get("token-a", verifier);
+        cache.get("token-c", verifier);
+        assertThat(verifications).hasValue(3);
+
+        // b was the least recently used of the two it held
+        cache.get("token-a", verifier);
+        cache.get("token-b", verifier);
+        assertThat(verifications).hasValue(4);
+    }
+
+    @Test
+    void rejectedTokenIsNotCached() {
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, TokenClaims> rejecting = token -> {
+            verifications.incrementAndGet();
+            throw new JwtException("bad signature");
+        };
+
+        assertThatThrownBy(() -> cache.get("forged", rejecting)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> cache.get("forged", rejecting)).isInstanceOf(JwtException.class);
+        assertThat(verifications).hasValue(2);
+    }
+
+    private static Function<String, TokenClaims> counting(AtomicInteger verifications, Function<String, TokenClaims> verifier) {
+        return token -> {
+            verifications.incrementAndGet();
+            return verifier.apply(token);
+        };
+    }
+
+    private static Function<String, TokenClaims> validFor(long millis) {
+        return token -> new TokenClaims(7L, token, UserType.STUDENT, System.currentTimeMillis() + millis);
+    }
+}
@@ -0,0 +1,156 @@
+package com.mpma.dms.service.impl;
+
+import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.PagedResponse;
+import com.azure.core.http.rest.Response;
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.batch.BlobBatch;
+import com.azure.storage.blob.batch.BlobBatchClient;
+import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobItemProperties;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.models.DeleteSnapshotsOptionType;
+import com.azure.storage.blob.models.ListBlobsOptions;
+import com.mpma.dms.service.DeleteProgress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Folder deletes with dedup: batch deletes are conditional on the listed ETag, and a pointer
+// overwritten after listing releases the content it points at now, not the listed hash
+class AzureStorageServiceDeleteTest {
+
+    private static final String CONTAINER = "files";
+
+    private final BlobContainerClient containerClient = mock(BlobContainerClient.class);
+    private final BlobBatchClient batchClient = mock(BlobBatchClient.class);
+    private final BlobBatch batch = mock(BlobBatch.class);
+    private final ContentRefIndex contentRefIndex = mock(ContentRefIndex.class);
+    private final DeleteProgress progress = mock(DeleteProgress.class);
+    private final ExecutorService deleteExecutor = Executors.newSingleThreadExecutor();
+
+    private AzureStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new AzureStorageService(mock(FileListingCache.class), null,
+                new StorageMetrics(new SimpleMeterRegistry()), contentRefIndex);
+        ReflectionTestUtils.setField(storage, "containerClient", containerClient);
+        ReflectionTestUtils.setField(storage, "batchClient", batchClient);
+        ReflectionTestUtils.setField(storage, "deleteExecutor", deleteExecutor);
+        ReflectionTestUtils.setField(storage, "containerName", CONTAINER);
+        ReflectionTestUtils.setField(storage, "deleteParallelism", 2);
+        ReflectionTestUtils.setField(storage, "dedupEnabled", true);
+        when(batchClient.getBlobBatch()).thenReturn(batch);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteExecutor.shutdownNow();
+    }
+
+    @Test
+    void releasesEachPointerOnceEvenWhenOverwrittenAfterListing() {
+        listing(pointer("u/docs/a.txt", "\"e1\"", "h1"),
+                pointer("u/docs/b.txt", "\"e2\"", "h2"),
+                pointer("u/docs/c.txt", "\"e3\"", "h3"),
+                new BlobItem().setName("u/docs/plain.txt").setProperties(new BlobItemProperties().setETag("\"e4\"")));
+        batchStatus("u/docs/a.txt", 202);
+        batchStatus("u/docs/b.txt", 412);   // re-uploaded since listing: now points at h2b
+        batchStatus("u/docs/c.txt", 404);   // deleted by someone else, who released h3
+        batchStatus("u/docs/plain.txt", 202);
+
+        BlobClient current = mock(BlobClient.class);
+        BlobProperties currentProperties = mock(BlobProperties.class);
+        when(currentProperties.getETag()).thenReturn("\"e2b\"");
+        when(currentProperties.getMetadata()).thenReturn(Map.of("dmscontent", "h2b"));
+        when(current.getProperties()).thenReturn(currentProperties);
+        when(containerClient.getBlobClient("u/docs/b.txt")).thenReturn(current);
+
+        storage.deleteFolder("u/docs", progress);
+
+        verify(contentRefIndex).release("h1");
+        verify(contentRefIndex).release("h2b");
+        verify(contentRefIndex, never()).release("h2");
+        verify(contentRefIndex, never()).release("h3");
+        verify(progress).listed(4);
+        verify(progress).deleted(4);
+        verify(progress, never()).failed(anyString(), any());
+
+        ArgumentCaptor<BlobRequestConditions> retry = ArgumentCaptor.forClass(BlobRequestConditions.class);
+        verify(current).deleteWithResponse(eq(DeleteSnapshotsOptionType.INCLUDE), retry.capture(), isNull(), any());
+        assertThat(retry.getValue().getIfMatch()).isEqualTo("\"e2b\"");
+    }
+
+    @Test
+    void batchDeletesAreConditionalOnTheListedETag() {
+        listing(pointer("u/a.txt", "\"e1\"", "h1"), pointer("u/b.txt", "\"e2\"", "h2"));
+        batchStatus("u/a.txt", 202);
+        batchStatus("u/b.txt", 202);
+
+        storage.deleteFolder("u/", progress);
+
+        ArgumentCaptor<BlobRequestConditions> conditions = ArgumentCaptor.forClass(BlobRequestConditions.class);
+        verify(batch, times(2))
+                .deleteBlob(eq(CONTAINER), anyString(), eq(DeleteSnapshotsOptionType.INCLUDE), conditions.capture());
+        assertThat(conditions.getAllValues()).extracting(BlobRequestConditions::getIfMatch)
+                .containsExactly("\"e1\"", "\"e2\"");
+    }
+
+    @Test
+    void otherFailuresAreReportedAndReleaseNothing() {
+        listing(pointer("u/a.txt", "\"e1\"", "h1"));
+        batchStatus("u/a.txt", 403);
+
+        storage.deleteFolder("u/", progress);
+
+        verify(progress).failed("u/a.txt", "HTTP 403");
+        verify(progress).deleted(0);
+        verify(contentRefIndex, never()).release(anyString());
+    }
+
+    private static BlobItem pointer(String name, String eTag, String hash) {
+        return new BlobItem()
+                .setName(name)
+                .setMetadata(Map.of("dmscontent", hash, "dmssize", "10"))
+                .setProperties(new BlobItemProperties().setETag(eTag));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void listing(BlobItem... items) {
+        PagedResponse<BlobItem> page = mock(PagedResponse.class);
+        when(page.getValue()).thenReturn(List.of(items));
+        PagedIterable<BlobItem> listing = mock(PagedIterable.class);
+        when(listing.iterableByPage(anyInt())).thenReturn(List.of(page));
+        when(containerClient.listBlobs(any(ListBlobsOptions.class), isNull())).thenReturn(listing);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void batchStatus(String name, int status) {
+        Response<Void> response = mock(Response.class);
+        when(response.getStatusCode()).thenReturn(status);
+        when(batch.deleteBlob(eq(CONTAINER), eq(name), eq(DeleteSnapshotsOptionType.INCLUDE), any())).thenReturn(response);
+    }
+}
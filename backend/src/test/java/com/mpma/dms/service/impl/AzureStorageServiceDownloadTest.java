@@ -0,0 +1,203 @@
+package com.mpma.dms.service.impl;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.models.BlobErrorCode;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import com.azure.storage.blob.specialized.BlobInputStream;
+import com.mpma.dms.exception.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Downloads against mocked blob clients, copied through a 3-byte buffer
+class AzureStorageServiceDownloadTest {
+
+    private static final String PATH = "u/docs/report.pdf";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    private final BlobContainerClient containerClient = mock(BlobContainerClient.class);
+    private final BlobClient blob = mock(BlobClient.class);
+
+    private AzureStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new AzureStorageService(mock(FileListingCache.class), null,
+                new StorageMetrics(new SimpleMeterRegistry()), mock(ContentRefIndex.class));
+        ReflectionTestUtils.setField(storage, "containerClient", containerClient);
+        ReflectionTestUtils.setField(storage, "contentPrefix", "_content/");
+        ReflectionTestUtils.setField(storage, "downloadBlockSize", 4);
+        ReflectionTestUtils.setField(storage, "downloadBufferSize", 3);
+        when(containerClient.getBlobClient(PATH)).thenReturn(blob);
+    }
+
+    @Test
+    void blobIsStreamedThroughTheBuffer() throws IOException {
+        List<BlobInputStreamOptions> opened = new ArrayList<>();
+        when(blob.openInputStream(any(BlobInputStreamOptions.class))).thenAnswer(inv -> {
+            opened.add(inv.getArgument(0));
+            return blobStream(new ByteArrayInputStream(CONTENT));
+        });
+        RecordingOutputStream out = new RecordingOutputStream();
+
+        storage.downloadFile(PATH, "\"v1\"", out);
+
+        assertThat(out.toByteArray()).isEqualTo(CONTENT);
+        // No write is larger than the buffer, so the blob is never held whole
+        assertThat(out.writes).containsExactly(3, 3, 3, 1);
+        BlobInputStreamOptions options = opened.get(0);
+        assertThat(options.getBlockSize()).isEqualTo(4);
+        assertThat(options.getRange().getOffset()).isZero();
+        assertThat(options.getRequestConditions().getIfMatch()).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void rangeIsPassedToTheBlobStream() throws IOException {
+        List<BlobRange> ranges = new ArrayList<>();
+        when(blob.openInputStream(any(BlobInputStreamOptions.class))).thenAnswer(inv -> {
+            ranges.add(((BlobInputStreamOptions) inv.getArgument(0)).getRange());
+            return blobStream(new ByteArrayInputStream(CONTENT, 2, 5));
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        storage.downloadFileRange(PATH, null, 2, 5, out);
+
+        assertThat(out.toString(StandardCharsets.US_ASCII)).isEqualTo("23456");
+        assertThat(ranges.get(0).getOffset()).isEqualTo(2);
+        assertThat(ranges.get(0).getCount()).isEqualTo(5);
+    }
+
+    @Test
+    void blobFailingPartwayKeepsWhatWasSentAndCloses() throws IOException {
+        InputStream failing = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position == 7) {
+                    throw new IOException("connection reset");
+                }
+                return CONTENT[position++];
+            }
+        };
+        BlobInputStream in = blobStream(failing);
+        when(blob.openInputStream(any(BlobInputStreamOptions.class))).thenReturn(in);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> storage.downloadFile(PATH, null, out)).hasMessage("connection reset");
+
+        assertThat(out.toString(StandardCharsets.US_ASCII)).isEqualTo("0123456");
+        verify(in).close();
+    }
+
+    @Test
+    void clientGoingAwayStopsReadingTheBlob() throws IOException {
+        BlobInputStream in = blobStream(new ByteArrayInputStream(CONTENT));
+        when(blob.openInputStream(any(BlobInputStreamOptions.class))).thenReturn(in);
+        OutputStream closed = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++written > 3) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        assertThatThrownBy(() -> storage.downloadFile(PATH, null, closed)).hasMessage("Broken pipe");
+
+        // The failed write ends the copy: no further blocks are fetched
+        verify(in, atMost(2)).read(any(byte[].class));
+        verify(in).close();
+    }
+
+    @Test
+    void missingBlobIsNotFound() {
+        BlobStorageException notFound = error(404, BlobErrorCode.BLOB_NOT_FOUND);
+        when(blob.getProperties()).thenThrow(notFound);
+        when(blob.openInputStream(any(BlobInputStreamOptions.class))).thenThrow(notFound);
+
+        assertThatThrownBy(() -> storage.getFileMetadata(PATH))
+                .isInstanceOf(NotFoundException.class).hasMessage("File not found: " + PATH);
+        assertThatThrownBy(() -> storage.downloadFile(PATH, null, new ByteArrayOutputStream()))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> storage.downloadFileRange(PATH, null, 2, 4, new ByteArrayOutputStream()))
+                .isInstanceOf(NotFoundException.class);
+
+        // With dedup the pointer is read before the body
+        ReflectionTestUtils.setField(storage, "dedupEnabled", true);
+        assertThatThrownBy(() -> storage.downloadFile(PATH, null, new ByteArrayOutputStream()))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void otherStorageErrorsAreRethrown() {
+        BlobStorageException forbidden = error(403, BlobErrorCode.AUTHORIZATION_FAILURE);
+        when(blob.getProperties()).thenThrow(forbidden);
+        when(blob.openInputStream(any(BlobInputStreamOptions.class))).thenThrow(forbidden);
+
+        assertThatThrownBy(() -> storage.getFileMetadata(PATH)).isSameAs(forbidden);
+        assertThatThrownBy(() -> storage.downloadFile(PATH, null, new ByteArrayOutputStream())).isSameAs(forbidden);
+    }
+
+    // A blob stream that hands out what source returns, at most one buffer per read
+    private static BlobInputStream blobStream(InputStream source) throws IOException {
+        BlobInputStream in = mock(BlobInputStream.class);
+        when(in.read(any(byte[].class))).thenAnswer(inv -> {
+            byte[] buffer = inv.getArgument(0);
+            int read = 0;
+            try {
+                int b;
+                while (read < buffer.length && (b = source.read()) != -1) {
+                    buffer[read++] = (byte) b;
+                }
+            } catch (IOException e) {
+                if (read == 0) {
+                    throw e;
+                }
+                return read;
+            }
+            return read == 0 ? -1 : read;
+        });
+        return in;
+    }
+
+    private static class RecordingOutputStream extends ByteArrayOutputStream {
+        private final List<Integer> writes = new ArrayList<>();
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes.add(len);
+            super.write(b, off, len);
+        }
+    }
+
+    private static BlobStorageException error(int status, BlobErrorCode code) {
+        BlobStorageException e = mock(BlobStorageException.class);
+        when(e.getStatusCode()).thenReturn(status);
+        when(e.getErrorCode()).thenReturn(code);
+        return e;
+    }
+}
@@ -0,0 +1,223 @@
+package com.mpma.dms.service.impl;
+
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.polling.LongRunningOperationStatus;
+import com.azure.core.util.polling.PollResponse;
+import com.azure.core.util.polling.SyncPoller;
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.models.BlobCopyInfo;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.models.CopyStatusType;
+import com.azure.storage.blob.options.BlockBlobSimpleUploadOptions;
+import com.azure.storage.blob.specialized.BlockBlobClient;
+import com.mpma.dms.dto.BlockTimingDTO;
+import com.mpma.dms.dto.UploadResultDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Uploads against mocked blob clients with 4-byte blocks
+class AzureStorageServiceUploadTest {
+
+    private static final String PATH = "u/docs/big.bin";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final String HASH = sha256(CONTENT);
+
+    private final BlobContainerClient containerClient = mock(BlobContainerClient.class);
+    private final ContentRefIndex contentRefIndex = mock(ContentRefIndex.class);
+    private final ExecutorService uploadExecutor = Executors.newFixedThreadPool(2);
+
+    private final BlobClient staging = mock(BlobClient.class);
+    private final BlockBlobClient stagingBlocks = mock(BlockBlobClient.class);
+    private final BlobClient content = mock(BlobClient.class);
+    private final BlobClient pointer = mock(BlobClient.class);
+    private final BlockBlobClient pointerBlocks = mock(BlockBlobClient.class);
+
+    private AzureStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new AzureStorageService(mock(FileListingCache.class), null,
+                new StorageMetrics(new SimpleMeterRegistry()), contentRefIndex);
+        ReflectionTestUtils.setField(storage, "containerClient", containerClient);
+        ReflectionTestUtils.setField(storage, "uploadExecutor", uploadExecutor);
+        ReflectionTestUtils.setField(storage, "uploadBlockSize", 4);
+        ReflectionTestUtils.setField(storage, "uploadParallelism", 2);
+        ReflectionTestUtils.setField(storage, "contentPrefix", "_content/");
+        ReflectionTestUtils.setField(storage, "dedupEnabled", true);
+
+        when(containerClient.getBlobClient(startsWith("_content/staging/"))).thenReturn(staging);
+        when(staging.getBlockBlobClient()).thenReturn(stagingBlocks);
+        when(staging.getBlobUrl()).thenReturn("https://account/files/_content/staging/x");
+        when(containerClient.getBlobClient("_content/" + HASH)).thenReturn(content);
+        when(containerClient.getBlobClient(PATH)).thenReturn(pointer);
+        when(pointer.getBlockBlobClient()).thenReturn(pointerBlocks);
+        BlobStorageException notFound = mock(BlobStorageException.class);
+        when(notFound.getStatusCode()).thenReturn(404);
+        when(pointerBlocks.getProperties()).thenThrow(notFound);
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadExecutor.shutdownNow();
+    }
+
+    @Test
+    void newContentIsHashedWhileStagedThenCopiedToItsKey() throws Exception {
+        when(content.exists()).thenReturn(false);
+        copyResult(CopyStatusType.SUCCESS);
+        MockMultipartFile file = spy(new MockMultipartFile("file", "big.bin", "application/octet-stream", CONTENT));
+
+        UploadResultDTO result = storage.uploadFile(file, PATH);
+
+        // The body is read once: no getBytes(), one stream for hashing and staging together
+        verify(file, times(1)).getInputStream();
+        verify(file, never()).getBytes();
+        verify(stagingBlocks, times(3)).stageBlock(anyString(), any(BinaryData.class));
+        verify(stagingBlocks).commitBlockList(anyList(), eq(true));
+        verify(content).beginCopy("https://account/files/_content/staging/x", Duration.ofSeconds(1));
+        verify(staging).deleteIfExists();
+        verify(contentRefIndex).acquire(HASH, CONTENT.length);
+
+        ArgumentCaptor<BlockBlobSimpleUploadOptions> written = ArgumentCaptor.forClass(BlockBlobSimpleUploadOptions.class);
+        verify(pointerBlocks).uploadWithResponse(written.capture(), isNull(), any());
+        assertThat(written.getValue().getMetadata()).containsEntry("dmscontent", HASH).containsEntry("dmssize", "10");
+        assertThat(result.getBlockCount()).isEqualTo(3);
+    }
+
+    @Test
+    void stagedCopyIsDiscardedWhenContentExists() throws Exception {
+        when(content.exists()).thenReturn(true);
+
+        storage.uploadFile(new MockMultipartFile("file", CONTENT), PATH);
+
+        verify(content, never()).beginCopy(anyString(), any(Duration.class));
+        verify(staging).deleteIfExists();
+        verify(pointerBlocks).uploadWithResponse(any(BlockBlobSimpleUploadOptions.class), isNull(), any());
+    }
+
+    @Test
+    void smallFileIsNotSentWhenContentExists() throws Exception {
+        byte[] small = "abc".getBytes(StandardCharsets.US_ASCII);
+        BlobClient smallContent = mock(BlobClient.class);
+        when(containerClient.getBlobClient("_content/" + sha256(small))).thenReturn(smallContent);
+        when(smallContent.exists()).thenReturn(true);
+
+        UploadResultDTO result = storage.uploadFile(new MockMultipartFile("file", small), PATH);
+
+        verify(smallContent, never()).upload(any(BinaryData.class), anyBoolean());
+        verify(containerClient, never()).getBlobClient(startsWith("_content/staging/"));
+        assertThat(result.getBlockCount()).isZero();
+    }
+
+    @Test
+    void blocksAreStagedInParallelAndCommittedInOrder() throws Exception {
+        ReflectionTestUtils.setField(storage, "dedupEnabled", false);
+        when(pointer.getBlobName()).thenReturn(PATH);
+        // The first block is held until the second has been staged, so they finish out of order
+        CountDownLatch secondStaged = new CountDownLatch(1);
+        Map<String, byte[]> staged = new ConcurrentHashMap<>();
+        List<String> finished = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> {
+            String id = inv.getArgument(0);
+            if (id.equals(blockId(0))) {
+                assertThat(secondStaged.await(5, TimeUnit.SECONDS)).isTrue();
+            }
+            staged.put(id, ((BinaryData) inv.getArgument(1)).toBytes());
+            finished.add(id);
+            if (id.equals(blockId(1))) {
+                secondStaged.countDown();
+            }
+            return null;
+        }).when(pointerBlocks).stageBlock(anyString(), any(BinaryData.class));
+
+        UploadResultDTO result = storage.uploadFile(new MockMultipartFile("file", CONTENT), PATH);
+
+        assertThat(finished.indexOf(blockId(1))).isLessThan(finished.indexOf(blockId(0)));
+        List<String> order = List.of(blockId(0), blockId(1), blockId(2));
+        verify(pointerBlocks).commitBlockList(order, true);
+        ByteArrayOutputStream committed = new ByteArrayOutputStream();
+        for (String id : order) {
+            committed.write(staged.get(id));
+        }
+        assertThat(committed.toByteArray()).isEqualTo(CONTENT);
+        assertThat(result.getBlocks()).extracting(BlockTimingDTO::getIndex, BlockTimingDTO::getSize)
+                .containsExactly(tuple(0, 4L), tuple(1, 4L), tuple(2, 2L));
+    }
+
+    @Test
+    void failedBlockIsNotCommitted() {
+        ReflectionTestUtils.setField(storage, "dedupEnabled", false);
+        when(pointer.getBlobName()).thenReturn(PATH);
+        doThrow(new IllegalStateException("stage failed"))
+                .when(pointerBlocks).stageBlock(eq(blockId(1)), any(BinaryData.class));
+
+        assertThatThrownBy(() -> storage.uploadFile(new MockMultipartFile("file", CONTENT), PATH))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Block upload failed: " + PATH)
+                .hasRootCauseMessage("stage failed");
+
+        verify(pointerBlocks, never()).commitBlockList(anyList(), anyBoolean());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void copyResult(CopyStatusType status) {
+        SyncPoller<BlobCopyInfo, Void> poller = mock(SyncPoller.class);
+        BlobCopyInfo info = new BlobCopyInfo("src", "copy-1", status, "\"e\"", null, null);
+        when(poller.waitForCompletion()).thenReturn(new PollResponse<>(LongRunningOperationStatus.SUCCESSFULLY_COMPLETED, info));
+        when(content.beginCopy(anyString(), any(Duration.class))).thenReturn(poller);
+    }
+
+    private static String blockId(int index) {
+        return Base64.getEncoder().encodeToString(String.format("%08d", index).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.entity.Student;
+import com.mpma.dms.service.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CertificateCacheTest {
+
+    private final CertificateRenderer renderer = mock(CertificateRenderer.class);
+    private final StorageBackend storage = mock(StorageBackend.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CertificateCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(renderer.getTemplateHash()).thenReturn("template-1");
+        doThrow(new IOException("not spilled")).when(storage).downloadFile(anyString(), isNull(), any(OutputStream.class));
+
+        cache = new CertificateCache(renderer, storage, meterRegistry);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1024L);
+        ReflectionTestUtils.setField(cache, "spillEnabled", true);
+        ReflectionTestUtils.setField(cache, "spillPrefix", "_certificate-cache/");
+        ReflectionTestUtils.setField(cache, "spillQueueCapacity", 2);
+        cache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void repeatedRequestIsServedFromMemory() throws IOException {
+        AtomicInteger renders = new AtomicInteger();
+        Student student = student("Kamal Perera");
+
+        cache.get(student, () -> pdf(renders));
+        byte[] second = cache.get(student, () -> pdf(renders));
+
+        assertThat(renders).hasValue(1);
+        assertThat(second).containsExactly(1, 2, 3);
+        verify(storage, timeout(5000)).uploadFileFromBytes(anyString(), any());
+    }
+
+    @Test
+    void spillsBeyondTheQueueAreDroppedAndCounted() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(storage).uploadFileFromBytes(anyString(), any());
+        AtomicInteger renders = new AtomicInteger();
+
+        // One write running, two queued, the other three dropped
+        cache.get(student("student 0"), () -> pdf(renders));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < 6; i++) {
+            cache.get(student("student " + i), () -> pdf(renders));
+        }
+
+        assertThat(meterRegistry.counter("dms.certificate.spill.dropped", "operation", "write").count()).isEqualTo(3);
+        release.countDown();
+        verify(storage, timeout(5000).times(3)).uploadFileFromBytes(anyString(), any());
+        cache.shutdown();
+        verify(storage, times(3)).uploadFileFromBytes(anyString(), any());
+    }
+
+    private static byte[] pdf(AtomicInteger renders) {
+        renders.incrementAndGet();
+        return new byte[]{1, 2, 3};
+    }
+
+    private static Student student(String name) {
+        return Student.builder().fullName(name).nic("200012345678").build();
+    }
+}
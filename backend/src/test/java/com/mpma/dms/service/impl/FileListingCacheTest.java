@@ -0,0 +1,115 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.FileInfoDTO;
+import com.mpma.dms.dto.FilePageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileListingCacheTest {
+
+    private FileListingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new FileListingCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxItems", 100L);
+        ReflectionTestUtils.setField(cache, "maxItemsPerPrefix", 30L);
+    }
+
+    @Test
+    void slicesPageThroughOneCachedListing() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<FilePageDTO> loader = counting(loads, listing("f", 25));
+
+        List<String> names = new ArrayList<>();
+        String token = null;
+        do {
+            FilePageDTO page = cache.getSlice("u/", loader, token, 10);
+            page.getItems().forEach(item -> names.add(item.getName()));
+            token = page.getContinuationToken();
+        } while (token != null);
+
+        assertThat(loads).hasValue(1);
+        assertThat(names).isEqualTo(listing("f", 25).getItems().stream().map(FileInfoDTO::getName).toList());
+    }
+
+    @Test
+    void callersCannotModifyCachedItems() {
+        Supplier<FilePageDTO> loader = () -> listing("f", 3);
+        cache.getSlice("u/", loader, null, 10).getItems().get(0).setName("changed");
+        cache.get("u/", "all", loader).getItems().get(1).setName("changed");
+
+        assertThat(cache.getSlice("u/", loader, null, 10).getItems())
+                .extracting(FileInfoDTO::getName).containsExactly("f000", "f001", "f002");
+    }
+
+    @Test
+    void listingsOverThePrefixLimitAreNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<FilePageDTO> loader = counting(loads, listing("f", 31));
+
+        cache.get("u/", "all", loader);
+        cache.get("u/", "all", loader);
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.canHold(30)).isTrue();
+        assertThat(cache.canHold(31)).isFalse();
+    }
+
+    @Test
+    void pagesOfOnePrefixAreEvictedBeforeOtherPrefixes() {
+        AtomicInteger otherLoads = new AtomicInteger();
+        cache.get("v/", "all", counting(otherLoads, listing("g", 20)));
+
+        // Three 10-item pages fit in u/'s budget of 30; the fourth evicts the oldest
+        AtomicInteger firstPageLoads = new AtomicInteger();
+        cache.get("u/", "10|", counting(firstPageLoads, listing("a", 10)));
+        cache.get("u/", "10|a", () -> listing("b", 10));
+        cache.get("u/", "10|b", () -> listing("c", 10));
+        cache.get("u/", "10|c", () -> listing("d", 10));
+        cache.get("u/", "10|", counting(firstPageLoads, listing("a", 10)));
+        cache.get("v/", "all", counting(otherLoads, listing("g", 20)));
+
+        assertThat(firstPageLoads).hasValue(2);
+        assertThat(otherLoads).hasValue(1);
+    }
+
+    @Test
+    void invalidatedLoadIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<FilePageDTO> racing = () -> {
+            loads.incrementAndGet();
+            cache.invalidatePath("u/new.txt");
+            return listing("f", 2);
+        };
+
+        cache.get("u/", "all", racing);
+        cache.get("u/", "all", racing);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private static Supplier<FilePageDTO> counting(AtomicInteger loads, FilePageDTO page) {
+        return () -> {
+            loads.incrementAndGet();
+            return page;
+        };
+    }
+
+    private static FilePageDTO listing(String prefix, int count) {
+        List<FileInfoDTO> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new FileInfoDTO(String.format("%s%03d", prefix, i), i, "txt", null, false));
+        }
+        return new FilePageDTO(items, null);
+    }
+}
@@ -0,0 +1,179 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.config.ExecutionMode;
+import com.mpma.dms.service.FolderArchiveService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+// Archives of a tree on the local backend: small files go through the prefetch window, large
+// ones are streamed, and the folder walk pages through big folders
+class FolderArchiveServiceImplTest {
+
+    @TempDir
+    Path rootDir;
+
+    private LocalStorageService storage;
+    private FolderArchiveServiceImpl archives;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileListingCache cache = new FileListingCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "maxItems", 10_000L);
+        ReflectionTestUtils.setField(cache, "maxItemsPerPrefix", 10_000L);
+        storage = spy(new LocalStorageService(cache, new StorageMetrics(new SimpleMeterRegistry())));
+        ReflectionTestUtils.setField(storage, "rootDir", rootDir.toString());
+        ReflectionTestUtils.setField(storage, "mapWindow", 1024 * 1024);
+        storage.init();
+
+        archives = new FolderArchiveServiceImpl(storage, new ExecutionMode(new MockEnvironment()), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archives, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(archives, "prefetchCount", 3);
+        ReflectionTestUtils.setField(archives, "prefetchMaxFileBytes", 64L);
+        ReflectionTestUtils.setField(archives, "prefetchThreads", 2);
+        ReflectionTestUtils.setField(archives, "slotWaitSeconds", 1L);
+        archives.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        archives.shutdown();
+    }
+
+    @Test
+    void archivesWholeTreeWithRelativeNames() throws IOException {
+        Map<String, byte[]> expected = new LinkedHashMap<>();
+        expected.put("a.txt", bytes("alpha"));
+        expected.put("scan.pdf", bytes("%PDF-1.7 small"));
+        expected.put("big.txt", bytes("x".repeat(500)));
+        expected.put("big.pdf", bytes("y".repeat(500)));
+        expected.put("sub/b.txt", bytes("beta"));
+        expected.put("sub/deeper/c.txt", bytes("gamma"));
+        expected.put("sub/empty.txt", new byte[0]);
+        expected.forEach((name, content) -> storage.uploadFileFromBytes("user-1/docs/" + name, content));
+        storage.uploadFileFromBytes("user-1/other.txt", bytes("outside"));
+
+        Map<String, byte[]> entries = unzip(archive("user-1/docs"));
+
+        assertThat(entries.keySet()).containsExactlyInAnyOrderElementsOf(expected.keySet());
+        expected.forEach((name, content) -> assertThat(entries.get(name)).as(name).isEqualTo(content));
+    }
+
+    @Test
+    void walkPagesThroughLargeFolders() throws IOException {
+        // LIST_PAGE_SIZE is 1000
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1005; i++) {
+            String name = String.format("f%04d.txt", i);
+            names.add(name);
+            storage.uploadFileFromBytes("user-1/many/" + name, bytes(name));
+        }
+
+        Map<String, byte[]> entries = unzip(archive("user-1/many/"));
+
+        assertThat(entries.keySet()).containsExactlyInAnyOrderElementsOf(names);
+        assertThat(entries.get("f1004.txt")).isEqualTo(bytes("f1004.txt"));
+    }
+
+    @Test
+    void unreadableFileIsSkippedAndListed() throws IOException {
+        storage.uploadFileFromBytes("user-1/docs/good.txt", bytes("good"));
+        storage.uploadFileFromBytes("user-1/docs/bad.txt", bytes("bad"));
+        doThrow(new IOException("disk error")).when(storage)
+                .downloadFile(eq("user-1/docs/bad.txt"), isNull(), any(OutputStream.class));
+
+        Map<String, byte[]> entries = unzip(archive("user-1/docs"));
+
+        assertThat(entries).containsOnlyKeys("good.txt", "_download-errors.txt");
+        assertThat(new String(entries.get("_download-errors.txt"), StandardCharsets.UTF_8))
+                .startsWith("bad.txt: ").contains("disk error");
+    }
+
+    @Test
+    void slotIsHeldOnlyWhileWriting() throws Exception {
+        storage.uploadFileFromBytes("user-1/docs/a.txt", bytes("alpha"));
+
+        // A writer whose response body never runs does not use up the only slot
+        archives.open("user-1/docs");
+        archive("user-1/docs");
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FolderArchiveService.ArchiveWriter writer = archives.open("user-1/docs");
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                writer.writeTo(new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        writing.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> archives.open("user-1/docs")).isInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        archive("user-1/docs");
+    }
+
+    private byte[] archive(String prefix) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        archives.open(prefix).writeTo(out);
+        return out.toByteArray();
+    }
+
+    private static Map<String, byte[]> unzip(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), in.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,114 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.FileInfoDTO;
+import com.mpma.dms.dto.FilePageDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Folders within the cache's per-prefix limit are paged from the cached listing, larger ones
+// straight from the directory; both must walk the same names in the same order
+class LocalStorageServiceListingTest {
+
+    @TempDir
+    Path rootDir;
+
+    private LocalStorageService storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileListingCache cache = new FileListingCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxItems", 1000L);
+        ReflectionTestUtils.setField(cache, "maxItemsPerPrefix", 40L);
+        storage = new LocalStorageService(cache, new StorageMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(storage, "rootDir", rootDir.toString());
+        ReflectionTestUtils.setField(storage, "mapWindow", 1024 * 1024);
+        storage.init();
+    }
+
+    @Test
+    void smallFolderIsPagedFromTheCachedListing() throws IOException {
+        List<String> expected = populate("u/small/", 12);
+
+        assertThat(walk("u/small/", 5)).isEqualTo(expected);
+    }
+
+    @Test
+    void largeFolderIsPagedFromTheDirectory() throws IOException {
+        List<String> expected = populate("u/large/", 30);
+        assertThat(expected).hasSizeGreaterThan(40);
+
+        for (int pageSize : new int[]{1, 7, 40, 500}) {
+            assertThat(walk("u/large/", pageSize)).as("page size %d", pageSize).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void largeFolderPagesCarryDetails() throws IOException {
+        populate("u/large/", 30);
+
+        FilePageDTO page = storage.listUserFilesPage("u/large/", "a", 2);
+
+        assertThat(page.getItems()).extracting(FileInfoDTO::getName).containsExactly("a-b.txt", "a.txt");
+        assertThat(page.getItems().get(1).getSize()).isEqualTo(5);
+        assertThat(page.getItems().get(1).getType()).isEqualTo("txt");
+        FilePageDTO folder = storage.listUserFilesPage("u/large/", "a.txt", 1);
+        assertThat(folder.getItems()).extracting(FileInfoDTO::getName, FileInfoDTO::isFolder)
+                .containsExactly(tuple("a/", true));
+    }
+
+    @Test
+    void uploadsInProgressAreNotListed() throws IOException {
+        populate("u/small/", 2);
+        Files.writeString(rootDir.resolve("u/small/.tmp-upload-1"), "partial");
+
+        assertThat(walk("u/small/", 100)).doesNotContain(".tmp-upload-1");
+    }
+
+    // count files plus names that sort around a folder's trailing "/": "a-b.txt" < "a.txt" < "a/" < "a0",
+    // although the raw folder name "a" sorts first
+    private List<String> populate(String prefix, int count) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String name = String.format("file-%03d.txt", i);
+            storage.uploadFileFromBytes(prefix + name, new byte[i]);
+            names.add(name);
+        }
+        for (int i = 0; i < count / 3; i++) {
+            String folder = String.format("dir-%03d", i);
+            storage.uploadFileFromBytes(prefix + folder + "/inner.txt", new byte[1]);
+            names.add(folder + "/");
+        }
+        storage.uploadFileFromBytes(prefix + "a0", new byte[1]);
+        storage.uploadFileFromBytes(prefix + "a-b.txt", new byte[1]);
+        storage.uploadFileFromBytes(prefix + "a.txt", "hello".getBytes());
+        storage.uploadFileFromBytes(prefix + "a/inner.txt", new byte[1]);
+        names.addAll(List.of("a-b.txt", "a.txt", "a/", "a0"));
+        names.sort(null);
+        return names;
+    }
+
+    private List<String> walk(String prefix, int pageSize) {
+        List<String> names = new ArrayList<>();
+        String token = null;
+        do {
+            FilePageDTO page = storage.listUserFilesPage(prefix, token, pageSize);
+            assertThat(page.getItems().size()).isLessThanOrEqualTo(pageSize);
+            page.getItems().forEach(item -> names.add(item.getName()));
+            token = page.getContinuationToken();
+        } while (token != null);
+        return names;
+    }
+}
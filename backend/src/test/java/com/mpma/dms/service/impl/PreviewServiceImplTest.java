@@ -0,0 +1,139 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.FileMetadataDTO;
+import com.mpma.dms.service.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// A delete racing a render must never leave a thumbnail behind for the deleted file
+class PreviewServiceImplTest {
+
+    private static final String PATH = "user-1/docs/report.pdf";
+    private static final String PREVIEW = "_preview/user-1/docs/report.pdf.jpg";
+
+    private final StorageBackend storage = mock(StorageBackend.class);
+    private final PreviewRenderer renderer = mock(PreviewRenderer.class);
+
+    private PreviewServiceImpl previews;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        previews = new PreviewServiceImpl(storage, renderer, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(previews, "previewPrefix", "_preview/");
+        ReflectionTestUtils.setField(previews, "previewThreads", 1);
+        ReflectionTestUtils.setField(previews, "queueCapacity", 10);
+        ReflectionTestUtils.setField(previews, "maxSourceBytes", 1024L);
+        previews.init();
+
+        when(renderer.supports(anyString())).thenReturn(true);
+        when(renderer.render(anyString(), any())).thenReturn(new byte[]{1, 2, 3});
+        when(storage.getFileMetadata(PATH)).thenReturn(new FileMetadataDTO(PATH, 3, "\"e1\"", "application/pdf", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        previews.shutdown();
+    }
+
+    @Test
+    void renderStoresThumbnail() {
+        previews.renderAsync(PATH);
+
+        verify(storage, timeout(5000)).uploadFileFromBytes(eq(PREVIEW), any());
+    }
+
+    @Test
+    void deleteBeforeUploadSkipsThumbnail() throws Exception {
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+        when(renderer.render(anyString(), any())).thenAnswer(inv -> {
+            rendering.countDown();
+            deleted.await(5, TimeUnit.SECONDS);
+            return new byte[]{1, 2, 3};
+        });
+
+        previews.renderAsync(PATH);
+        assertThat(rendering.await(5, TimeUnit.SECONDS)).isTrue();
+        previews.remove(PATH);
+        deleted.countDown();
+
+        verify(storage).deleteFile(PREVIEW);
+        verify(storage, after(500).never()).uploadFileFromBytes(anyString(), any());
+    }
+
+    @Test
+    void deleteDuringUploadWaitsAndRemovesThumbnail() throws Exception {
+        CountDownLatch uploading = new CountDownLatch(1);
+        CountDownLatch releaseUpload = new CountDownLatch(1);
+        doAnswer(inv -> {
+            uploading.countDown();
+            releaseUpload.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(storage).uploadFileFromBytes(eq(PREVIEW), any());
+
+        previews.renderAsync(PATH);
+        assertThat(uploading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread deleter = new Thread(() -> previews.remove(PATH));
+        deleter.start();
+        deleter.join(200);
+        // remove() is blocked on the path lock while the upload is in flight
+        assertThat(deleter.isAlive()).isTrue();
+        verify(storage, never()).deleteFile(anyString());
+
+        releaseUpload.countDown();
+        deleter.join(5000);
+        assertThat(deleter.isAlive()).isFalse();
+
+        InOrder order = inOrder(storage);
+        order.verify(storage).uploadFileFromBytes(eq(PREVIEW), any());
+        order.verify(storage).deleteFile(PREVIEW);
+    }
+
+    @Test
+    void folderDeleteDuringUploadWaitsAndRemovesThumbnails() throws Exception {
+        CountDownLatch uploading = new CountDownLatch(1);
+        CountDownLatch releaseUpload = new CountDownLatch(1);
+        doAnswer(inv -> {
+            uploading.countDown();
+            releaseUpload.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(storage).uploadFileFromBytes(eq(PREVIEW), any());
+
+        previews.renderAsync(PATH);
+        assertThat(uploading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread deleter = new Thread(() -> previews.removeFolder("user-1/docs"));
+        deleter.start();
+        deleter.join(200);
+        assertThat(deleter.isAlive()).isTrue();
+
+        releaseUpload.countDown();
+        deleter.join(5000);
+        assertThat(deleter.isAlive()).isFalse();
+
+        InOrder order = inOrder(storage);
+        order.verify(storage).uploadFileFromBytes(eq(PREVIEW), any());
+        order.verify(storage).deleteFolder("_preview/user-1/docs/");
+    }
+}
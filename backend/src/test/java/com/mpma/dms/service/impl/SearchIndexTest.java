@@ -0,0 +1,178 @@
+package com.mpma.dms.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+    private static final String USER = "user-1";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void ranksDocumentsAndHonoursPathPrefix() throws IOException {
+        SearchIndex index = open(1000);
+        put(index, "user-1/reports/q1.txt", "budget budget budget forecast");
+        put(index, "user-1/reports/q2.txt", "budget summary for the quarter with many other words in it");
+        put(index, "user-1/notes/todo.txt", "buy milk");
+
+        assertThat(paths(index.search(USER, "user-1/", List.of("budget"), 10)))
+                .containsExactly("user-1/reports/q1.txt", "user-1/reports/q2.txt");
+        assertThat(paths(index.search(USER, "user-1/notes/", List.of("budget", "milk"), 10)))
+                .containsExactly("user-1/notes/todo.txt");
+        assertThat(index.search(USER, "user-1/", List.of("budget"), 1)).hasSize(1);
+    }
+
+    @Test
+    void replaysPutsAndRemovesAfterRestart() throws IOException {
+        SearchIndex index = open(1000);
+        put(index, "user-1/a.txt", "alpha shared");
+        put(index, "user-1/b.txt", "beta shared");
+        put(index, "user-1/docs/c.txt", "gamma shared");
+        put(index, "user-1/docs/d.txt", "delta shared");
+        put(index, "user-1/a.txt", "alpha rewritten shared");
+        index.remove(USER, "user-1/b.txt");
+        index.removePrefix(USER, "user-1/docs/");
+
+        SearchIndex reopened = open(1000);
+        assertThat(paths(reopened.search(USER, "user-1/", List.of("shared"), 10))).containsExactly("user-1/a.txt");
+        assertThat(reopened.search(USER, "user-1/", List.of("rewritten"), 10)).hasSize(1);
+        assertThat(reopened.search(USER, "user-1/", List.of("beta", "gamma", "delta"), 10)).isEmpty();
+    }
+
+    @Test
+    void compactsTheLogOnceSupersededRecordsPileUp() throws IOException {
+        SearchIndex index = open(5);
+        for (int i = 0; i < 50; i++) {
+            put(index, "user-1/a.txt", "version" + i + " text");
+        }
+        put(index, "user-1/b.txt", "other text");
+
+        // Two live documents; without compaction the log would hold 51 puts
+        assertThat(countRecords(logFile())).isLessThanOrEqualTo(2 + 5 + 1);
+
+        SearchIndex reopened = open(5);
+        assertThat(paths(reopened.search(USER, "user-1/", List.of("text"), 10)))
+                .containsExactlyInAnyOrder("user-1/a.txt", "user-1/b.txt");
+        assertThat(reopened.search(USER, "user-1/", List.of("version49"), 10)).hasSize(1);
+        assertThat(reopened.search(USER, "user-1/", List.of("version48"), 10)).isEmpty();
+    }
+
+    @Test
+    void keepsDocumentsBeforeATornRecord() throws IOException {
+        SearchIndex index = open(1000);
+        put(index, "user-1/a.txt", "alpha");
+        put(index, "user-1/b.txt", "beta");
+        Path log = logFile();
+        long intact = Files.size(log);
+        put(index, "user-1/c.txt", "gamma");
+
+        // Crash in the middle of the last append
+        byte[] bytes = Files.readAllBytes(log);
+        Files.write(log, Arrays.copyOf(bytes, (int) intact + 5));
+
+        SearchIndex reopened = open(1000);
+        assertThat(paths(reopened.search(USER, "user-1/", List.of("alpha", "beta", "gamma"), 10)))
+                .containsExactlyInAnyOrder("user-1/a.txt", "user-1/b.txt");
+        // The torn tail was compacted away, so later appends replay cleanly
+        put(reopened, "user-1/d.txt", "delta");
+        assertThat(open(1000).search(USER, "user-1/", List.of("delta"), 10)).hasSize(1);
+    }
+
+    @Test
+    void postingsStayConsistentThroughRandomPutsAndRemoves() throws IOException {
+        SearchIndex index = open(1000);
+        Map<String, String> live = new TreeMap<>();
+        Random random = new Random(42);
+        String[] vocabulary = {"aa", "bb", "cc", "dd", "ee", "ff", "gg", "hh"};
+
+        for (int step = 0; step < 2000; step++) {
+            String path = "user-1/f" + random.nextInt(6) + "/doc" + random.nextInt(20);
+            int action = random.nextInt(10);
+            if (action < 6) {
+                StringBuilder text = new StringBuilder();
+                for (int w = random.nextInt(6) + 1; w > 0; w--) {
+                    text.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+                }
+                put(index, path, text.toString());
+                live.put(path, text.toString());
+            } else if (action < 9) {
+                index.remove(USER, path);
+                live.remove(path);
+            } else {
+                String prefix = "user-1/f" + random.nextInt(6) + "/";
+                index.removePrefix(USER, prefix);
+                live.keySet().removeIf(p -> p.startsWith(prefix));
+            }
+        }
+
+        SearchIndex reopened = open(1000);
+        for (String term : vocabulary) {
+            Set<String> expected = new HashSet<>();
+            live.forEach((path, text) -> {
+                if ((" " + text).contains(" " + term + " ")) {
+                    expected.add(path);
+                }
+            });
+            assertThat(paths(index.search(USER, "user-1/", List.of(term), 1000)))
+                    .as(term).containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(paths(reopened.search(USER, "user-1/", List.of(term), 1000)))
+                    .as(term + " after replay").containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    private SearchIndex open(int compactSlack) throws IOException {
+        SearchIndex index = new SearchIndex();
+        ReflectionTestUtils.setField(index, "indexDir", dir.toString());
+        ReflectionTestUtils.setField(index, "compactSlack", compactSlack);
+        index.init();
+        return index;
+    }
+
+    private static void put(SearchIndex index, String path, String text) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        SearchIndex.tokenize(text, 1, termFreqs);
+        index.put(USER, new SearchIndex.IndexedDocument(path, text.length(), 0L, termFreqs), () -> true);
+    }
+
+    private static List<String> paths(List<SearchIndex.Hit> hits) {
+        return hits.stream().map(SearchIndex.Hit::path).toList();
+    }
+
+    private Path logFile() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(".idx")).findFirst().orElseThrow();
+        }
+    }
+
+    // Every record in these logs carries one document path
+    private static long countRecords(Path log) throws IOException {
+        byte[] bytes = Files.readAllBytes(log);
+        byte[] marker = "user-1/".getBytes(StandardCharsets.UTF_8);
+        long count = 0;
+        for (int i = 0; i + marker.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + marker.length, marker, 0, marker.length)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
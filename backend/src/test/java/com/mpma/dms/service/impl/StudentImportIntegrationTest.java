@@ -0,0 +1,151 @@
+package com.mpma.dms.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mpma.dms.EmbeddedPostgresConfig;
+import com.mpma.dms.dto.BulkImportErrorDTO;
+import com.mpma.dms.dto.BulkImportResultDTO;
+import com.mpma.dms.dto.UserDTO;
+import com.mpma.dms.entity.Student;
+import com.mpma.dms.entity.User;
+import com.mpma.dms.enums.UserType;
+import com.mpma.dms.repository.StudentRepository;
+import com.mpma.dms.repository.UserRepository;
+import com.mpma.dms.security.PasswordHasher;
+import com.mpma.dms.service.OnboardingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+// Imports run their own transactions (with a row-by-row retry after a failed batch),
+// so the test does not wrap them in one and cleans up afterwards instead
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmbeddedPostgresConfig.class, UserImporter.class, PasswordHasher.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StudentImportIntegrationTest {
+
+    // Pre-hashed passwords skip BCrypt, which keeps the large import fast
+    private static final String HASH = new BCryptPasswordEncoder(4).encode("secret");
+
+    @Autowired
+    private UserImporter userImporter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @MockitoBean
+    private OnboardingService onboardingService;
+
+    private StudentServiceImpl studentService;
+
+    @BeforeEach
+    void setUp() {
+        studentService = new StudentServiceImpl(studentRepository, null, null, new ObjectMapper(), userImporter);
+        userRepository.save(User.builder().username("taken").password(HASH).userType(UserType.STUDENT).build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        studentRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void importsValidRowsAndReportsTheRest() throws IOException {
+        String csv = """
+                username,password,fullName,gpa,eligible
+                kamal,secret,Kamal Perera,3.5,yes
+                nimal,,Nimal Silva,3.0,no
+                sunil,%1$s,Sunil Fernando,abc,no
+                kamal,%1$s,Kamal Again,2.0,no
+                taken,%1$s,Already There,2.0,no
+                amara,%1$s,"Amara, Jayasinghe",3.9,1
+                """.formatted(HASH);
+
+        BulkImportResultDTO result = studentService.importStudents(stream(csv), false);
+
+        assertThat(result.getRequested()).isEqualTo(6);
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(BulkImportErrorDTO::getIndex, BulkImportErrorDTO::getMessage)
+                .containsExactly(
+                        tuple(1, "Password is required"),
+                        tuple(2, "Invalid gpa: abc"),
+                        tuple(3, "Duplicate username in request"),
+                        tuple(4, "Username already exists"));
+
+        User kamal = userRepository.findByUsername("kamal").orElseThrow();
+        assertThat(kamal.getPassword()).isNotEqualTo("secret").startsWith("$2");
+        Student amara = studentRepository.findById(userRepository.findByUsername("amara").orElseThrow().getId()).orElseThrow();
+        assertThat(amara.getFullName()).isEqualTo("Amara, Jayasinghe");
+        assertThat(amara.isEligible()).isTrue();
+    }
+
+    @Test
+    void importsAcrossChunksAndEnqueuesOnboardingForEveryUser() throws IOException {
+        StringBuilder csv = new StringBuilder("username,password,fullName,gpa\n");
+        int rows = 2_345;
+        for (int i = 0; i < rows; i++) {
+            csv.append("student").append(i).append(',').append(HASH).append(",Student ").append(i).append(",3.0\n");
+        }
+
+        BulkImportResultDTO result = studentService.importStudents(stream(csv.toString()), false);
+
+        assertThat(result.getCreated()).isEqualTo(rows);
+        assertThat(result.getFailed()).isZero();
+        assertThat(studentRepository.count()).isEqualTo(rows);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(onboardingService, atLeastOnce()).enqueue(ids.capture());
+        List<Long> enqueued = new ArrayList<>();
+        ids.getAllValues().forEach(enqueued::addAll);
+        assertThat(enqueued).hasSize(rows).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void bulkRowWithExistingIdCannotOverwriteAnotherUser() {
+        User victim = userRepository.findByUsername("taken").orElseThrow();
+        UserDTO row = new UserDTO(null, victim.getId(), "intruder", HASH, "forged-token", UserType.ADMIN);
+        BulkImportResultDTO result = new BulkImportResultDTO(0, 0, 0, new ArrayList<>());
+
+        userImporter.importBatch(List.of(row), 0, result);
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        User unchanged = userRepository.findById(victim.getId()).orElseThrow();
+        assertThat(unchanged.getUsername()).isEqualTo("taken");
+        assertThat(unchanged.getUserType()).isEqualTo(UserType.STUDENT);
+        User intruder = userRepository.findByUsername("intruder").orElseThrow();
+        assertThat(intruder.getId()).isNotEqualTo(victim.getId());
+        assertThat(intruder.getAccessToken()).isNull();
+        assertThat(userRepository.count()).isEqualTo(2);
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
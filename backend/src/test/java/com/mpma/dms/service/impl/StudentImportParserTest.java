@@ -0,0 +1,139 @@
+package com.mpma.dms.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mpma.dms.dto.StudentImportRowDTO;
+import com.mpma.dms.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StudentImportParserTest {
+
+    private record Parsed(int index, StudentImportRowDTO row, String error) {
+    }
+
+    private final List<Parsed> parsed = new ArrayList<>();
+
+    @Test
+    void readsColumnsByHeaderNameInAnyOrderAndCase() throws IOException {
+        parseCsv("""
+                GPA,UserName,fullName,eligible,NIC,password,nameWithInitials
+                3.5,kamal,Kamal Perera,yes,901234567V,secret,K. Perera
+                """);
+
+        assertThat(parsed).hasSize(1);
+        StudentImportRowDTO row = parsed.get(0).row();
+        assertThat(row.getUsername()).isEqualTo("kamal");
+        assertThat(row.getPassword()).isEqualTo("secret");
+        assertThat(row.getFullName()).isEqualTo("Kamal Perera");
+        assertThat(row.getNameWithInitials()).isEqualTo("K. Perera");
+        assertThat(row.getNic()).isEqualTo("901234567V");
+        assertThat(row.getGpa()).isEqualTo(3.5f);
+        assertThat(row.getEligible()).isTrue();
+    }
+
+    @Test
+    void quotedFieldsKeepCommasAndEscapedQuotes() throws IOException {
+        parseCsv("""
+                username,fullName,nameWithInitials
+                nimal,"Perera, Nimal","N. ""Nimmi"" Perera"
+                """);
+
+        StudentImportRowDTO row = parsed.get(0).row();
+        assertThat(row.getFullName()).isEqualTo("Perera, Nimal");
+        assertThat(row.getNameWithInitials()).isEqualTo("N. \"Nimmi\" Perera");
+    }
+
+    @Test
+    void stripsByteOrderMarkFromHeader() throws IOException {
+        parseCsv("\uFEFFusername,gpa\nsunil,2.5\n");
+
+        assertThat(parsed).hasSize(1);
+        assertThat(parsed.get(0).row().getUsername()).isEqualTo("sunil");
+    }
+
+    @Test
+    void emptyAndMissingFieldsAreNullAndBlankLinesSkipped() throws IOException {
+        parseCsv("username,fullName,gpa,eligible\n\namara, ,\n   \nbandara\n");
+
+        assertThat(parsed).extracting(Parsed::index).containsExactly(0, 1);
+        assertThat(parsed.get(0).row().getFullName()).isNull();
+        assertThat(parsed.get(0).row().getGpa()).isNull();
+        assertThat(parsed.get(1).row().getUsername()).isEqualTo("bandara");
+        assertThat(parsed.get(1).row().getEligible()).isNull();
+    }
+
+    @Test
+    void badRowsAreReportedWithoutStoppingTheFile() throws IOException {
+        parseCsv("""
+                username,gpa,eligible,fullName
+                a,three,yes,A
+                b,3.1,maybe,B
+                c,3.2,no,"unterminated
+                d,3.3,0,D
+                """);
+
+        assertThat(parsed).extracting(Parsed::index).containsExactly(0, 1, 2, 3);
+        assertThat(parsed.get(0).error()).isEqualTo("Invalid gpa: three");
+        assertThat(parsed.get(1).error()).isEqualTo("Invalid eligible value: maybe");
+        assertThat(parsed.get(2).error()).isEqualTo("Unterminated quoted field");
+        assertThat(parsed.get(3).error()).isNull();
+        assertThat(parsed.get(3).row().getEligible()).isFalse();
+    }
+
+    @Test
+    void csvWithoutUsernameColumnIsRejected() {
+        assertThatThrownBy(() -> parseCsv("name,gpa\nx,1\n"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void emptyCsvHasNoRows() throws IOException {
+        parseCsv("");
+        assertThat(parsed).isEmpty();
+    }
+
+    @Test
+    void jsonArrayIsReadRecordByRecord() throws IOException {
+        parseJson("""
+                [
+                  {"username": "kamal", "gpa": 3.5, "eligible": true},
+                  {"username": "nimal", "gpa": "not a number"},
+                  {"username": "sunil", "fullName": "Sunil Silva"}
+                ]
+                """);
+
+        assertThat(parsed).extracting(Parsed::index).containsExactly(0, 1, 2);
+        assertThat(parsed.get(0).row().getGpa()).isEqualTo(3.5f);
+        assertThat(parsed.get(1).row()).isNull();
+        assertThat(parsed.get(1).error()).startsWith("Invalid record:");
+        assertThat(parsed.get(2).row().getFullName()).isEqualTo("Sunil Silva");
+    }
+
+    @Test
+    void jsonThatIsNotAnArrayIsRejected() {
+        assertThatThrownBy(() -> parseJson("{\"username\": \"kamal\"}"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private void parseCsv(String csv) throws IOException {
+        StudentImportParser.parseCsv(stream(csv), (index, row, error) -> parsed.add(new Parsed(index, row, error)));
+    }
+
+    private void parseJson(String json) throws IOException {
+        StudentImportParser.parseJson(stream(json), new ObjectMapper(),
+                (index, row, error) -> parsed.add(new Parsed(index, row, error)));
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,241 @@
+package com.mpma.dms.service.impl;
+
+import com.mpma.dms.dto.UploadResultDTO;
+import com.mpma.dms.dto.UploadSessionDTO;
+import com.mpma.dms.exception.BadRequestException;
+import com.mpma.dms.exception.NotFoundException;
+import com.mpma.dms.exception.UploadOffsetException;
+import com.mpma.dms.service.StorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+// Chunks are staged against the local backend with 4-byte blocks so every chunk spans
+// several blocks and the committed offset can be checked after each one
+class UploadSessionServiceImplTest {
+
+    private static final String PATH = "user-1/folder/big.bin";
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path rootDir;
+
+    private LocalStorageService storage;
+    private UploadSessionServiceImpl uploads;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileListingCache cache = new FileListingCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(cache, "maxItems", 1000L);
+        ReflectionTestUtils.setField(cache, "maxItemsPerPrefix", 1000L);
+        storage = new LocalStorageService(cache, new StorageMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(storage, "rootDir", rootDir.toString());
+        ReflectionTestUtils.setField(storage, "mapWindow", 1024 * 1024);
+        storage.init();
+
+        uploads = newService(storage);
+    }
+
+    private static UploadSessionServiceImpl newService(StorageBackend backend) {
+        UploadSessionServiceImpl service = new UploadSessionServiceImpl(backend, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "blockSize", 4);
+        ReflectionTestUtils.setField(service, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(service, "maxSessions", 2);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void chunksAdvanceOffsetAndCompleteIntoFile() throws IOException {
+        String id = uploads.create(PATH, CONTENT.length).getSessionId();
+
+        assertThat(append(id, 0, 0, 7).getOffset()).isEqualTo(7);
+        assertThat(uploads.getSession(id)).get().extracting(UploadSessionDTO::getOffset).isEqualTo(7L);
+        assertThat(append(id, 7, 7, 20).getOffset()).isEqualTo(20);
+
+        UploadResultDTO result = uploads.complete(id);
+
+        // 7 bytes -> 4 + 3, 13 bytes -> 4 + 4 + 4 + 1
+        assertThat(result.getBlockCount()).isEqualTo(6);
+        assertThat(result.getSize()).isEqualTo(CONTENT.length);
+        assertThat(read(PATH)).isEqualTo(CONTENT);
+        assertThat(uploads.getSession(id)).isEmpty();
+    }
+
+    @Test
+    void chunkAtWrongOffsetIsRejectedWithCommittedOffset() throws IOException {
+        String id = uploads.create(PATH, CONTENT.length).getSessionId();
+        append(id, 0, 0, 8);
+
+        // A retry of the chunk that already went through, and one that skips ahead
+        for (long offset : new long[]{0, 12}) {
+            assertThatThrownBy(() -> append(id, offset, (int) offset, CONTENT.length))
+                    .isInstanceOf(UploadOffsetException.class)
+                    .extracting(e -> ((UploadOffsetException) e).getCommittedOffset())
+                    .isEqualTo(8L);
+        }
+
+        // Nothing was staged by the rejected chunks; resuming from the committed offset works
+        append(id, 8, 8, CONTENT.length);
+        uploads.complete(id);
+        assertThat(read(PATH)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void brokenChunkKeepsStagedBlocks() throws IOException {
+        String id = uploads.create(PATH, CONTENT.length).getSessionId();
+        InputStream failing = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position == 10) {
+                    throw new IOException("connection reset");
+                }
+                return CONTENT[position++];
+            }
+        };
+
+        assertThatThrownBy(() -> uploads.append(id, 0, failing)).isInstanceOf(IOException.class);
+
+        // The two full blocks were staged; the partial third one is resent
+        assertThat(uploads.getSession(id)).get().extracting(UploadSessionDTO::getOffset).isEqualTo(8L);
+        append(id, 8, 8, CONTENT.length);
+        uploads.complete(id);
+        assertThat(read(PATH)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void completeBeforeAllBytesIsRejectedWithCommittedOffset() throws IOException {
+        String id = uploads.create(PATH, CONTENT.length).getSessionId();
+        append(id, 0, 0, 5);
+
+        assertThatThrownBy(() -> uploads.complete(id))
+                .isInstanceOf(UploadOffsetException.class)
+                .extracting(e -> ((UploadOffsetException) e).getCommittedOffset())
+                .isEqualTo(5L);
+        assertThat(uploads.getSession(id)).isPresent();
+    }
+
+    @Test
+    void chunkPastUploadLengthIsRejected() {
+        String id = uploads.create(PATH, 6).getSessionId();
+
+        assertThatThrownBy(() -> append(id, 0, 0, 10)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void invalidLengthAndSessionLimitAreRejected() {
+        assertThatThrownBy(() -> uploads.create(PATH, -1)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> uploads.create(PATH, 4L * 50_000 + 1)).isInstanceOf(BadRequestException.class);
+
+        uploads.create(PATH, 1);
+        uploads.create(PATH, 1);
+        assertThatThrownBy(() -> uploads.create(PATH, 1)).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void unknownCompletedAndAbortedSessionsAreNotFound() throws IOException {
+        assertThatThrownBy(() -> append("missing", 0, 0, 1)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> uploads.complete("missing")).isInstanceOf(NotFoundException.class);
+
+        String completed = uploads.create(PATH, 4).getSessionId();
+        append(completed, 0, 0, 4);
+        uploads.complete(completed);
+        assertThatThrownBy(() -> append(completed, 4, 0, 1)).isInstanceOf(NotFoundException.class);
+
+        String aborted = uploads.create(PATH, 4).getSessionId();
+        uploads.abort(aborted);
+        assertThatThrownBy(() -> append(aborted, 0, 0, 4)).isInstanceOf(NotFoundException.class);
+        // Aborting twice is fine
+        uploads.abort(aborted);
+    }
+
+    @Test
+    void emptyUploadCompletes() throws IOException {
+        String id = uploads.create(PATH, 0).getSessionId();
+
+        assertThat(append(id, 0, 0, 0).getOffset()).isZero();
+        assertThat(uploads.complete(id).getBlockCount()).isZero();
+        assertThat(read(PATH)).isEmpty();
+    }
+
+    @Test
+    void concurrentChunkGetsConflict() throws Exception {
+        StorageBackend slow = mock(StorageBackend.class);
+        CountDownLatch staging = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            staging.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(slow).stageBlock(anyString(), anyString(), anyInt(), anyLong(), any(), anyInt());
+        UploadSessionServiceImpl service = newService(slow);
+        String id = service.create(PATH, 4).getSessionId();
+
+        CompletableFuture<UploadSessionDTO> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.append(id, 0, new ByteArrayInputStream(CONTENT, 0, 4));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertThat(staging.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.append(id, 0, new ByteArrayInputStream(CONTENT, 0, 4)))
+                .isInstanceOf(UploadOffsetException.class)
+                .extracting(e -> ((UploadOffsetException) e).getCommittedOffset())
+                .isEqualTo(0L);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getOffset()).isEqualTo(4);
+    }
+
+    @Test
+    void idleSessionsExpireAndReleaseStagedBlocks() {
+        StorageBackend backend = mock(StorageBackend.class);
+        UploadSessionServiceImpl service = newService(backend);
+        String id = service.create(PATH, 4).getSessionId();
+
+        ReflectionTestUtils.setField(service, "ttlMinutes", -1L);
+        service.expireSessions();
+
+        assertThat(service.getSession(id)).isEmpty();
+        verify(backend).abortBlocks(PATH, id);
+    }
+
+    private UploadSessionDTO append(String id, long offset, int from, int to) throws IOException {
+        return uploads.append(id, offset, new ByteArrayInputStream(Arrays.copyOfRange(CONTENT, from, to)));
+    }
+
+    private byte[] read(String path) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        storage.downloadFile(path, null, out);
+        return out.toByteArray();
+    }
+}
@@ -17,6 +17,19 @@ import { UploadModal } from "../components/modals/UploadModal";
 import { DocumentList } from "../components/DocumentList";
 import { useAuth } from "../context/AuthContext";
 
+// Folder delete job polling: 1s, 2s, 4s... capped at 10s, for at most 2 minutes
+const DELETE_JOB_POLL_MIN_MS = 1000;
+const DELETE_JOB_POLL_MAX_MS = 10000;
+const DELETE_JOB_TIMEOUT_MS = 2 * 60 * 1000;
+
+class DeleteJobTimeoutError extends Error {
+  constructor() {
+    super(
+      "The folder is still being deleted. Refresh later to see the result."
+    );
+  }
+}
+
 interface FileInfo {
   name: string;
   type: string;
@@ -250,6 +263,27 @@ export const DocumentsPage = () => {
     setShowDeleteModal(true);
   };
 
+  // Poll a folder delete job until it finishes, backing off between polls and
+  // giving up once the deadline passes
+  const waitForDeleteJob = async (jobId: string) => {
+    const deadline = Date.now() + DELETE_JOB_TIMEOUT_MS;
+    let delay = DELETE_JOB_POLL_MIN_MS;
+    for (;;) {
+      const { data } = await axios.get(
+        `http://localhost:8080/api/files/delete-folder/jobs/${jobId}`
+      );
+      if (data.status === "COMPLETED") return;
+      if (data.status === "FAILED") {
+        throw new Error(`Folder delete failed for ${data.failed} file(s)`);
+      }
+      if (Date.now() + delay > deadline) {
+        throw new DeleteJobTimeoutError();
+      }
+      await new Promise((resolve) => setTimeout(resolve, delay));
+      delay = Math.min(delay * 2, DELETE_JOB_POLL_MAX_MS);
+    }
+  };
+
   // Confirm delete action
   const handleDeleteConfirm = async () => {
     if (!itemToDelete) return;
@@ -262,7 +296,12 @@ export const DocumentsPage = () => {
         ? `http://localhost:8080/api/files/delete-folder/${userId}/${path}`
         : `http://localhost:8080/api/files/delete/${userId}/${path}`;
 
-      await axios.delete(endpoint);
+      const response = await axios.delete(endpoint);
+
+      // Folder deletes run as a background job – wait for it before refreshing
+      if (isFolder && response.status === 202) {
+        await waitForDeleteJob(response.data.jobId);
+      }
 
       // Close modal and reset state
       setShowDeleteModal(false);
@@ -272,7 +311,15 @@ export const DocumentsPage = () => {
       await fetchFiles(true);
     } catch (e) {
       console.error("Delete failed:", e);
-      alert("Delete failed");
+      if (e instanceof DeleteJobTimeoutError) {
+        // The job may still finish on the server: show what has gone so far
+        setShowDeleteModal(false);
+        setItemToDelete(null);
+        await fetchFiles(true);
+        alert(e.message);
+      } else {
+        alert("Delete failed");
+      }
     } finally {
       setIsDeleting(false);
     }